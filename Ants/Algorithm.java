@@ -0,0 +1,94 @@
+package Ants;
+
+import Graph.Graph;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Decides how the pheromones of a Graph change after each generation of ants,
+ * which is what tells the variants of Ant Colony Optimization apart.
+ */
+public interface Algorithm {
+
+    /**
+     * Called once before the first generation of a run, so that any state
+     * left over from a previous run can be reset.
+     * @param graph         the graph being solved
+     */
+    default void started (Graph graph) {
+    }
+
+    /**
+     * Get the probability of an ant simply taking the most desirable Edge
+     * instead of choosing between the Edges at random.
+     * @return              a probability between 0 and 1, 0 unless overridden
+     */
+    default double getExploitation () {
+        return 0;
+    }
+
+    /**
+     * Check whether every ant deposits pheromones along its own tour, and the
+     * pheromones otherwise only evaporate, so that each ant can deposit as soon
+     * as its tour is complete in an asynchronous run.
+     * @return              true if updatePheromones() only evaporates and deposits every ant, false unless overridden
+     */
+    default boolean depositsEveryAnt () {
+        return false;
+    }
+
+    /**
+     * Check whether the algorithm changes the pheromones while the ants are
+     * building their tours. If so, the ants move in lockstep: every ant takes a
+     * step, then the local updates of that step are applied in the order of the
+     * ants on a single thread, so the tours do not depend on the threads.
+     * @return              true if localUpdate() is overridden, false unless overridden
+     */
+    default boolean updatesLocally () {
+        return false;
+    }
+
+    /**
+     * Called every time an ant crosses an Edge while building its tour.
+     * Never called by two ants at the same time.
+     * @param graph         the graph being solved
+     * @param from          the index of the city the ant left
+     * @param to            the index of the city the ant arrived at
+     */
+    default void localUpdate (Graph graph, int from, int to) {
+    }
+
+    /**
+     * Get the state the algorithm carries from one generation to the next,
+     * other than the pheromones, so that it can be saved in a checkpoint.
+     * @return              the state, handed back to resumed(), empty unless overridden
+     */
+    default long[] getState () {
+        return new long[0];
+    }
+
+    /**
+     * Called instead of started() when a run resumes from a checkpoint, in
+     * which case the pheromones have already been restored and must be kept.
+     * @param graph         the graph being solved
+     * @param state         the state returned by getState() when the checkpoint was taken
+     */
+    default void resumed (Graph graph, long[] state) {
+        started(graph);
+    }
+
+    /**
+     * Update the pheromones once every ant of a generation has completed its tour.
+     * The ChoiceInfo of the graph must be refreshed before returning.
+     * @param graph         the graph being solved
+     * @param ants          the ants of the generation, with completed tours
+     * @param iterationBest the ant with the best tour of this generation
+     * @param bestSoFar     the ant with the best tour of the run so far
+     * @param generation    the number of the generation, starting at 0
+     * @param executor      the worker threads of the run, or null if it runs on one thread
+     * @param threads       the number of worker threads
+     */
+    void updatePheromones (Graph graph, Ant[] ants, Ant iterationBest, Ant bestSoFar, int generation,
+                           ExecutorService executor, int threads);
+
+}
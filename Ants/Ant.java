@@ -2,10 +2,8 @@ package Ants;
 
 import Graph.*;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Random;
+import java.util.Arrays;
+import java.util.SplittableRandom;
 
 /**
  * Represents an Ant from the Ant Colony Optimization algorithm.
@@ -13,39 +11,142 @@ import java.util.Random;
 public class Ant {
 
     private Graph graph;
-    private Node current;
-    private HashSet<Node> placesTravelled;
-    private ArrayList<Node> tour;
+    private Matrix matrix;
+    private CandidateList candidates;
+    private ChoiceInfo choiceInfo;
+    private int current;
+    private SplittableRandom random;
+
+    /**
+     * The cities travelled to in order, ending with the return to the start
+     * once the tour is complete, and the length of the tour so far.
+     */
+    private int[] tour;
+    private int travelled;
+    private long eval;
+
+    /**
+     * A city has been travelled to in the current tour if its entry equals the
+     * stamp. Starting a new tour only has to increment the stamp.
+     */
+    private int[] visited;
+    private int stamp;
+    private Algorithm algorithm;
+
+    /**
+     * When deferred, the local update of each step is left for applyLocalUpdate().
+     */
+    private boolean deferred;
+    private int lastFrom, lastTo;
+
+    /**
+     * Scratch space for choosing the next Vertex, reused at every step.
+     */
+    private int[] choices;
+    private double[] cumulative;
 
     /**
      * Construct the Ant.
      * @param graph     the graph that the ant will traverse
      */
     public Ant (Graph graph) {
+        this(graph, new SplittableRandom());
+    }
+
+    /**
+     * Construct the Ant with its own source of randomness, so that the tour
+     * it builds can be reproduced from the seed of the generator. Split the
+     * generator of each ant from a master generator to keep their streams apart.
+     * @param graph     the graph that the ant will traverse
+     * @param random    the random number generator used by the ant
+     */
+    public Ant (Graph graph, SplittableRandom random) {
+        this(graph, random, new AntSystem());
+    }
+
+    /**
+     * Construct the Ant for a particular variant of Ant Colony Optimization.
+     * @param graph     the graph that the ant will traverse
+     * @param random    the random number generator used by the ant
+     * @param algorithm the algorithm that decides how the ant chooses and updates Edges
+     */
+    public Ant (Graph graph, SplittableRandom random, Algorithm algorithm) {
         this.graph = graph;
+        this.algorithm = algorithm;
+        this.matrix = graph.getMatrix();
+        this.candidates = graph.getCandidateList();
+        this.choiceInfo = graph.getChoiceInfo();
+        this.random = random;
+        this.tour = new int[graph.getTotalVertices() + 1];
+        this.visited = new int[graph.getTotalVertices()];
+        this.choices = new int[graph.getTotalVertices()];
+        this.cumulative = new double[graph.getTotalVertices()];
         clear();
     }
 
+    /**
+     * Construct a copy of the completed tour of another Ant, which keeps
+     * the tour after the other Ant starts a new one. The copy shares the
+     * generator of the other Ant rather than splitting it, since splitting
+     * would advance the generator the other Ant carries on with.
+     * @param other     the ant to copy
+     */
+    private Ant (Ant other) {
+        this.graph = other.graph;
+        this.algorithm = other.algorithm;
+        this.matrix = other.matrix;
+        this.candidates = other.candidates;
+        this.choiceInfo = other.choiceInfo;
+        this.random = other.random;
+        this.tour = other.tour.clone();
+        this.travelled = other.travelled;
+        this.eval = other.eval;
+        this.current = other.current;
+        this.visited = other.visited.clone();
+        this.stamp = other.stamp;
+        this.choices = new int[visited.length];
+        this.cumulative = new double[visited.length];
+    }
+
+    /**
+     * Copy the Ant, such as to keep its tour as the best so far.
+     * @return      a new Ant with the same tour
+     */
+    public Ant copy () {
+        return new Ant(this);
+    }
+
     /**
      * Restart the Ant by removing the current position, tour, & history.
      */
     public void clear () {
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(visited, 0);
+            stamp = 1;
+        }
         current = getRandomVertex();
-        placesTravelled = new HashSet<>();
-        tour = new ArrayList<>();
+        visited[current] = stamp;
+        tour[0] = current;
+        travelled = 1;
+        eval = 0;
+    }
+
+    /**
+     * Restart the Ant on a new tour with a new source of randomness, so the
+     * same Ant can be reused for every generation of a run.
+     * @param random    the random number generator used by the ant from now on
+     */
+    void restart (SplittableRandom random) {
+        this.random = random;
+        clear();
     }
 
     /**
      * Select a random vertex from the graph.
-     * @return      a random vertex
+     * @return      the index of a random vertex
      */
-    private Vertex getRandomVertex () {
-        int r = new Random().nextInt(graph.getTotalVertices());
-        Iterator<Vertex> it = graph.iterator();
-        for (int i = 0; i < r; i++) {
-            it.next();
-        }
-        return it.next();
+    private int getRandomVertex () {
+        return random.nextInt(graph.getTotalVertices());
     }
 
     /**
@@ -58,15 +159,43 @@ public class Ant {
         }
 
         // If there are no more Edges left, add the first one to the end.
-        if (graph.getTotalVertices() == tour.size()) {
-            tour.add(tour.get(0));
+        if (travelled == visited.length) {
+            tour[travelled++] = tour[0];
+            eval += (long)matrix.getDistance(current, tour[0]);
+            crossed(current, tour[0]);
             return;
         }
 
-        Edge e = nextEdge();
-        placesTravelled.add(e);
-        tour.add(e);
-        current = e;
+        int next = nextVertex();
+        visited[next] = stamp;
+        tour[travelled++] = next;
+        eval += (long)matrix.getDistance(current, next);
+        crossed(current, next);
+        current = next;
+    }
+
+    /**
+     * Leave the local update of each step to applyLocalUpdate(), so that the
+     * steps of many ants can be taken in parallel and their updates applied in order.
+     */
+    void deferLocalUpdates () {
+        deferred = true;
+    }
+
+    /**
+     * Apply the local update of the last step, when local updates are deferred.
+     */
+    void applyLocalUpdate () {
+        algorithm.localUpdate(graph, lastFrom, lastTo);
+    }
+
+    private void crossed (int from, int to) {
+        if (deferred) {
+            lastFrom = from;
+            lastTo = to;
+        } else {
+            algorithm.localUpdate(graph, from, to);
+        }
     }
 
     /**
@@ -77,7 +206,7 @@ public class Ant {
      * @return      true if it has made a complete tour
      */
     public boolean notFinished () {
-        return graph.getTotalVertices() + 1 != tour.size();
+        return travelled != tour.length;
     }
 
     /**
@@ -89,136 +218,203 @@ public class Ant {
             throw new IllegalStateException("Cannot return an incomplete tour.");
         }
 
-        Node[] nodes = new Node[tour.size()];
+        Node[] nodes = new Node[tour.length];
 
-        for (int i = 0; i < tour.size(); i++) {
-            nodes[i] = tour.get(i);
+        for (int i = 0; i < tour.length; i++) {
+            nodes[i] = graph.getVertex(tour[i]);
         }
 
         return nodes;
     }
 
     /**
-     * Get the evaluation of the completed tour.
-     * @return      the sum of the total distances
+     * Get the cities of the completed tour by index, without the return to the start.
+     * @return      the index of each city in the order they were travelled to
      */
-    public int eval () {
-        int eval = 0;
-
-        for (int i = 1; i < tour.size(); i++) {
-            eval += Graph.getDistance(tour.get(i), tour.get(i-1));
+    public int[] getCities () {
+        if (notFinished()) {
+            throw new IllegalStateException("Cannot return an incomplete tour.");
         }
 
-        return eval;
+        return Arrays.copyOf(tour, tour.length - 1);
     }
 
     /**
-     * Get the Edge that the ant should travel to next. Accounts for both
-     * the pheromones and distances of all the edges.
-     * @return      the Edge to travel across
+     * Get a city of the completed tour without copying the tour.
+     * @param position  the position in the tour, from 0 to the number of cities,
+     *                  where the last position is the return to the start
+     * @return          the index of the city at that position
+     */
+    public int getCity (int position) {
+        return tour[position];
+    }
+
+    /**
+     * Replace the completed tour with another tour of the same cities,
+     * such as one improved by a local search.
+     * @param cities    the index of each city in order, without the return to the start
      */
-    public Edge nextEdge () {
-        ArrayList<Pair<Edge, Double>> probabilities = probabilities();
-        double r = new Random().nextDouble();
+    public void setCities (int[] cities) {
+        checkTour(cities, graph.getTotalVertices());
 
-        for (Pair<Edge, Double> pair : probabilities) {
-            if (r <= pair.item2) {
-                return pair.item1;
+        System.arraycopy(cities, 0, tour, 0, cities.length);
+        tour[cities.length] = cities[0];
+        travelled = tour.length;
+        current = cities[0];
+
+        eval = 0;
+        for (int i = 1; i < tour.length; i++) {
+            eval += (long)matrix.getDistance(tour[i-1], tour[i]);
+        }
+    }
+
+    /**
+     * Check that a tour visits every city of a Graph exactly once.
+     * @param cities    the index of each city in order, without the return to the start
+     * @param size      the number of cities in the Graph
+     * @throws IllegalArgumentException if a city is missing, repeated or out of range
+     */
+    static void checkTour (int[] cities, int size) {
+        if (cities.length != size) {
+            throw new IllegalArgumentException("A tour must visit every city exactly once.");
+        }
+        boolean[] seen = new boolean[size];
+        for (int city : cities) {
+            if (city < 0 || city >= size || seen[city]) {
+                throw new IllegalArgumentException("A tour must visit every city exactly once.");
             }
+            seen[city] = true;
         }
+    }
 
-        throw new AssertionError("No Edge could be selected.");
+    /**
+     * Get the evaluation of the tour, which is kept up to date as the ant travels.
+     * Each distance is rounded down before it is added, and the sum is kept
+     * as a long so that the tours of large instances cannot overflow it.
+     * @return      the sum of the total distances
+     */
+    public long eval () {
+        return eval;
     }
 
     /**
-     * Get the probabilities of all the edges and return them in an array.
-     * Example: if there are 4 edges, each with a probability of 0.25, then
-     * the array list will contain [0.25, 0.50, 0.75, 1.00].
-     * @return      the probabilities of each edge
+     * Get the Vertex that the ant should travel to next. Accounts for both
+     * the pheromones and distances of all the edges.
+     * <br />
+     * The desirability of every valid Vertex is accumulated in a single pass
+     * into scratch arrays owned by the ant, which are then searched with a
+     * random number. Example: if there are 4 valid vertices, each equally
+     * desirable, the cumulative array will contain [0.25, 0.50, 0.75, 1.00]
+     * scaled by the total desirability.
+     * @return      the index of the Vertex to travel to
      */
-    private ArrayList<Pair<Edge, Double>> probabilities () {
-        double denominator = denominator();
-        ArrayList<Pair<Edge, Double>> probabilities = new ArrayList<>(validEdges());
+    private int nextVertex () {
+        double exploitation = algorithm.getExploitation();
+        if (exploitation > 0 && random.nextDouble() < exploitation) {
+            return candidates != null ? bestCandidate() : bestVertex();
+        }
 
-        for (Edge e : graph.getVertex(current)) {
-            if (placesTravelled.contains(e)) continue;
-            Pair<Edge, Double> pair = new Pair<>();
+        int count = 0;
+        double total = 0.0;
 
-            if (probabilities.size() == 0) {
-                pair.item2 = desirability(e) / denominator;
-            } else {
-                int i = probabilities.size() - 1;
-                pair.item2 = probabilities.get(i).item2 + desirability(e) / denominator;
+        if (candidates != null) {
+            for (int i = 0; i < candidates.size(); i++) {
+                int e = candidates.get(current, i);
+                if (visited[e] == stamp) continue;
+                total += choiceInfo.getCandidate(current, i);
+                choices[count] = e;
+                cumulative[count++] = total;
+            }
+        } else {
+            for (int e = 0; e < matrix.size(); e++) {
+                if (visited[e] == stamp) continue;
+                total += choiceInfo.get(current, e);
+                choices[count] = e;
+                cumulative[count++] = total;
             }
+        }
 
-            pair.item1 = e;
-            probabilities.add(pair);
+        // Every candidate has been used, or the pheromones have all evaporated.
+        if (count == 0 || total == 0.0) {
+            return bestVertex();
         }
 
-        return probabilities;
+        return choices[select(count, random.nextDouble() * total)];
     }
 
     /**
-     * Get the number of Edges that are valid from the current position of the ant.
-     * Edges that have been travelled to previously are invalid.
-     * @return      the quantity of valid edges
+     * Binary search the cumulative desirabilities for the first entry above r.
+     * @param count the number of valid entries in the scratch arrays
+     * @param r     a random number between 0 (inclusive) and the total desirability (exclusive)
+     * @return      the position of the chosen entry in the scratch arrays
      */
-    private int validEdges () {
-        int i = 0;
-        for (Edge e : graph.getVertex(current)) {
-            if (!placesTravelled.contains(e)) {
-                i++;
+    private int select (int count, double r) {
+        int low = 0;
+        int high = count - 1;
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] > r) {
+                high = mid;
+            } else {
+                low = mid + 1;
             }
         }
-        return i;
+
+        return low;
     }
 
     /**
-     * Calculate the denominator for the formula that determines the probability
-     * of an ant moving from the current location to another.
-     * @return      the sum of all the probabilities of each edge
+     * Get the most desirable of the nearest neighbours that have not been
+     * travelled to yet, or the most desirable Vertex if every neighbour has.
+     * @return      the index of the most desirable Vertex
      */
-    private double denominator () {
-        double denominator = 0.0;
-        for (Edge e : graph.getVertex(current)) {
-            if (placesTravelled.contains(e)) continue;
-            denominator += desirability(e);
+    private int bestCandidate () {
+        int best = -1;
+        double bestDesirability = -1.0;
+
+        for (int i = 0; i < candidates.size(); i++) {
+            int e = candidates.get(current, i);
+            if (visited[e] == stamp) continue;
+            double d = choiceInfo.getCandidate(current, i);
+            if (d > bestDesirability) {
+                best = e;
+                bestDesirability = d;
+            }
         }
-        return denominator;
-    }
 
-    /**
-     * Calculate the pheromone on Edge e, to the power of alpha.
-     * Calculate the desirability of Edge e based on distance, to the power of beta.
-     * Get the product of the two results.
-     * @param e     the Edge to perform the calculations on
-     * @return      the desirability of the Edge
-     */
-    private double desirability (Edge e) {
-        double pheromone = Math.pow(e.getPheromone(), graph.getAlpha());
-        double distance = Graph.getDistance(current, e);
-        double distanceValue = Math.pow(1/distance, graph.getBeta());
-        return pheromone * distanceValue;
+        return best != -1 ? best : bestVertex();
     }
 
     /**
-     * Holds a pair of items.
-     * @param <T>   the first item type
-     * @param <E>   the second item type
+     * Get the most desirable Vertex out of every Vertex that has not been
+     * travelled to yet. Used once all the nearest neighbours have been visited.
+     * @return      the index of the most desirable Vertex
      */
-    private static class Pair<T, E> {
-        T item1;
-        E item2;
+    private int bestVertex () {
+        int best = -1;
+        double bestDesirability = -1.0;
+
+        for (int e = 0; e < matrix.size(); e++) {
+            if (visited[e] == stamp) continue;
+            double d = choiceInfo.get(current, e);
+            if (d > bestDesirability) {
+                best = e;
+                bestDesirability = d;
+            }
+        }
+
+        return best;
     }
 
     @Override
     public String toString () {
         StringBuilder sb = new StringBuilder();
         boolean flag = false;
-        for (Node node : tour) {
+        for (int i = 0; i < travelled; i++) {
             if (flag) sb.append(" -> ");
             flag = true;
-            sb.append(node.getName());
+            sb.append(graph.getVertex(tour[i]).getName());
         }
 
         return new String(sb);
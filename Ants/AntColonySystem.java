@@ -0,0 +1,157 @@
+package Ants;
+
+import Graph.CandidateList;
+import Graph.ChoiceInfo;
+import Graph.Graph;
+import Graph.Matrix;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * The Ant Colony System of Dorigo and Gambardella.
+ * <br />
+ * At each step an ant usually exploits the most desirable Edge outright, and
+ * only otherwise chooses at random like the Ant System. Every Edge an ant
+ * crosses loses some pheromone straight away, pulling it back towards the
+ * initial pheromone so that the following ants are pushed to try other Edges.
+ * After each generation only the Edges of the best tour so far are evaporated
+ * and reinforced, so the update touches n Edges rather than all of them.
+ * <br />
+ * The ants travel in lockstep: every ant takes a step, and the local updates
+ * of that step are then applied in the order of the ants, so a seeded run
+ * finds the same tour on any number of threads. The threads meet at a barrier
+ * after every step, so they only pay off on colonies large enough for a step
+ * of each thread's share of the ants to outweigh the hand-off.
+ */
+public class AntColonySystem implements Algorithm {
+
+    private double exploitation = 0.9;
+    private double localEvaporation = 0.1;
+    private double initialPheromone;
+
+    /**
+     * Set the probability of an ant taking the most desirable Edge outright.
+     * @param exploitation      a probability between 0 and 1, 0.9 by default
+     */
+    public void setExploitation (double exploitation) {
+        this.exploitation = exploitation;
+    }
+
+    /**
+     * Set the fraction of pheromone an Edge loses whenever an ant crosses it.
+     * @param localEvaporation  a fraction between 0 and 1, 0.1 by default
+     */
+    public void setLocalEvaporation (double localEvaporation) {
+        this.localEvaporation = localEvaporation;
+    }
+
+    @Override
+    public double getExploitation () {
+        return exploitation;
+    }
+
+    /**
+     * Start every Edge at 1 / (n * L), where L is the length of a nearest
+     * neighbour tour.
+     */
+    @Override
+    public void started (Graph graph) {
+        resumed(graph, getState());
+        graph.getMatrix().fill(initialPheromone);
+        graph.updateChoiceInfo();
+    }
+
+    @Override
+    public void resumed (Graph graph, long[] state) {
+        int cities = graph.getTotalVertices();
+        initialPheromone = 1.0 / (cities * nearestNeighbourTour(graph));
+    }
+
+    @Override
+    public boolean updatesLocally () {
+        return true;
+    }
+
+    @Override
+    public void localUpdate (Graph graph, int from, int to) {
+        Matrix matrix = graph.getMatrix();
+        ChoiceInfo choiceInfo = graph.getChoiceInfo();
+        double pheromone = (1 - localEvaporation) * matrix.getPheromone(from, to)
+                + localEvaporation * initialPheromone;
+
+        matrix.setPheromone(from, to, pheromone);
+        if (!matrix.isSymmetric()) {
+            matrix.setPheromone(to, from, pheromone);
+        }
+        choiceInfo.update(from, to);
+        choiceInfo.update(to, from);
+    }
+
+    @Override
+    public void updatePheromones (Graph graph, Ant[] ants, Ant iterationBest, Ant bestSoFar, int generation,
+                                  ExecutorService executor, int threads) {
+        Matrix matrix = graph.getMatrix();
+        ChoiceInfo choiceInfo = graph.getChoiceInfo();
+        double rate = graph.getEvaporationRate();
+        double deposit = rate / bestSoFar.eval();
+
+        int[] cities = bestSoFar.getCities();
+
+        for (int i = 0; i < cities.length; i++) {
+            int from = cities[i];
+            int to = cities[(i + 1) % cities.length];
+            double pheromone = (1 - rate) * matrix.getPheromone(from, to) + deposit;
+
+            matrix.setPheromone(from, to, pheromone);
+            if (!matrix.isSymmetric()) {
+                matrix.setPheromone(to, from, pheromone);
+            }
+            choiceInfo.update(from, to);
+            choiceInfo.update(to, from);
+        }
+    }
+
+    /**
+     * Get the length of the tour built by always travelling to the nearest
+     * unvisited city, checking the CandidateList first when there is one.
+     */
+    private static double nearestNeighbourTour (Graph graph) {
+        Matrix matrix = graph.getMatrix();
+        CandidateList candidates = graph.getCandidateList();
+        int cities = matrix.size();
+        boolean[] visited = new boolean[cities];
+
+        int current = 0;
+        visited[current] = true;
+        double length = 0;
+
+        for (int step = 1; step < cities; step++) {
+            int next = -1;
+
+            if (candidates != null) {
+                for (int k = 0; k < candidates.size() && next == -1; k++) {
+                    int c = candidates.get(current, k);
+                    if (!visited[c]) {
+                        next = c;
+                    }
+                }
+            }
+
+            if (next == -1) {
+                for (int c = 0; c < cities; c++) {
+                    if (visited[c]) continue;
+                    if (next == -1 || matrix.getDistance(current, c) < matrix.getDistance(current, next)) {
+                        next = c;
+                    }
+                }
+            }
+
+            length += matrix.getDistance(current, next);
+            visited[next] = true;
+            current = next;
+        }
+
+        return length + matrix.getDistance(current, 0);
+    }
+
+}
@@ -0,0 +1,24 @@
+package Ants;
+
+import Graph.Graph;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * The original Ant System, where the pheromones evaporate once per generation
+ * and then every ant deposits pheromones along its tour.
+ */
+public class AntSystem implements Algorithm {
+
+    @Override
+    public boolean depositsEveryAnt () {
+        return true;
+    }
+
+    @Override
+    public void updatePheromones (Graph graph, Ant[] ants, Ant iterationBest, Ant bestSoFar, int generation,
+                                  ExecutorService executor, int threads) {
+        graph.updatePheromones(ants, executor, threads);
+    }
+
+}
@@ -0,0 +1,43 @@
+package Ants;
+
+/**
+ * Prints the progress of a run to the console.
+ */
+public class ConsoleListener implements ProgressListener {
+
+    private int interval;
+
+    /**
+     * Construct a ConsoleListener that only prints the best tour at the end of the run.
+     */
+    public ConsoleListener () {
+        this(0);
+    }
+
+    /**
+     * Construct a ConsoleListener that also prints the best evaluation and the
+     * convergence of the pheromones every so often.
+     * @param interval      the number of generations between each line, or 0 for none
+     */
+    public ConsoleListener (int interval) {
+        this.interval = interval;
+    }
+
+    @Override
+    public void generation (Statistics statistics) {
+        int generation = statistics.getGeneration() + 1;
+        if (interval > 0 && generation % interval == 0) {
+            System.out.printf("Generation %d: best %d, mean %.1f, branching %.3f, entropy %.3f%n",
+                    generation, statistics.getBestEval(), statistics.getMeanEval(),
+                    statistics.getBranchingFactor(), statistics.getEntropy());
+        }
+    }
+
+    @Override
+    public void finished (Ant best, long bestEval) {
+        System.out.print("Best Tour: ");
+        System.out.println(best);
+        System.out.println("Evaluation: " + bestEval);
+    }
+
+}
@@ -0,0 +1,137 @@
+package Ants;
+
+import Graph.Graph;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Publishes the measurements of the latest generation of a run as an MBean,
+ * so a running solver can be watched with JConsole or any JMX collector.
+ * The MBean is registered when the run starts and removed when it finishes.
+ * <br />
+ * The measurements are copied on the solver thread, since the ants and the
+ * pheromones are not safe to read while the run goes on. The convergence of
+ * the pheromones is left out: working it out every generation costs as much
+ * as a pheromone update, so it is left to the file sinks.
+ */
+public class JmxListener implements ProgressListener, JmxListenerMBean {
+
+    private ObjectName name;
+    private volatile int generation;
+    private volatile long bestEval, iterationBestEval;
+    private volatile double meanEval;
+    private volatile long constructionNanos, localSearchNanos, updateNanos, allocatedBytes, elapsedNanos;
+    private volatile double toursPerSecond, stepsPerSecond;
+
+    /**
+     * Construct the JmxListener.
+     * @param run       the name of the run, which becomes the name key of the MBean
+     */
+    public JmxListener (String run) {
+        try {
+            this.name = new ObjectName("Ants:type=Solver,name=" + ObjectName.quote(run));
+        } catch (JMException ex) {
+            throw new IllegalArgumentException("Invalid run name " + run, ex);
+        }
+    }
+
+    public ObjectName getName () {
+        return name;
+    }
+
+    @Override
+    public void started (Graph graph) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+        } catch (JMException ex) {
+            throw new IllegalStateException("Could not register " + name, ex);
+        }
+    }
+
+    @Override
+    public void generation (Statistics statistics) {
+        generation = statistics.getGeneration() + 1;
+        bestEval = statistics.getBestEval();
+        iterationBestEval = statistics.getIterationBestEval();
+        meanEval = statistics.getMeanEval();
+        constructionNanos = statistics.getConstructionNanos();
+        localSearchNanos = statistics.getLocalSearchNanos();
+        updateNanos = statistics.getUpdateNanos();
+        toursPerSecond = statistics.getToursPerSecond();
+        stepsPerSecond = statistics.getStepsPerSecond();
+        allocatedBytes = statistics.getAllocatedBytes();
+        elapsedNanos = statistics.getElapsedNanos();
+    }
+
+    @Override
+    public void finished (Ant best, long bestEval) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException ex) {
+            throw new IllegalStateException("Could not unregister " + name, ex);
+        }
+    }
+
+    @Override
+    public int getGeneration () {
+        return generation;
+    }
+
+    @Override
+    public long getBestEval () {
+        return bestEval;
+    }
+
+    @Override
+    public long getIterationBestEval () {
+        return iterationBestEval;
+    }
+
+    @Override
+    public double getMeanEval () {
+        return meanEval;
+    }
+
+    @Override
+    public double getConstructionMillis () {
+        return constructionNanos / 1e6;
+    }
+
+    @Override
+    public double getLocalSearchMillis () {
+        return localSearchNanos / 1e6;
+    }
+
+    @Override
+    public double getUpdateMillis () {
+        return updateNanos / 1e6;
+    }
+
+    @Override
+    public double getToursPerSecond () {
+        return toursPerSecond;
+    }
+
+    @Override
+    public double getStepsPerSecond () {
+        return stepsPerSecond;
+    }
+
+    @Override
+    public long getAllocatedBytes () {
+        return allocatedBytes;
+    }
+
+    @Override
+    public long getElapsedMillis () {
+        return elapsedNanos / 1_000_000;
+    }
+
+}
@@ -0,0 +1,30 @@
+package Ants;
+
+/**
+ * The measurements of the latest generation of a run, as seen through JMX.
+ */
+public interface JmxListenerMBean {
+
+    int getGeneration ();
+
+    long getBestEval ();
+
+    long getIterationBestEval ();
+
+    double getMeanEval ();
+
+    double getConstructionMillis ();
+
+    double getLocalSearchMillis ();
+
+    double getUpdateMillis ();
+
+    double getToursPerSecond ();
+
+    double getStepsPerSecond ();
+
+    long getAllocatedBytes ();
+
+    long getElapsedMillis ();
+
+}
@@ -0,0 +1,144 @@
+package Ants;
+
+import Graph.Graph;
+import Graph.Matrix;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * The Max-Min Ant System of Stuetzle and Hoos.
+ * <br />
+ * Only a single ant deposits pheromones each generation: usually the best ant
+ * of the generation, and periodically the best ant of the run. The pheromones
+ * are kept between a lower and an upper bound derived from the best tour, so
+ * that no Edge becomes impossible or certain. The pheromones start at the
+ * upper bound, and when the best tour stops improving they are smoothed back
+ * towards the upper bound to encourage the ants to explore again.
+ */
+public class MaxMinAntSystem implements Algorithm {
+
+    private double probabilityBest = 0.05;
+    private int bestSoFarInterval = 5;
+    private int stagnationLimit = 50;
+    private double smoothing = 1.0;
+
+    private boolean initialized;
+    private long bestEval;
+    private int sinceImprovement;
+
+    /**
+     * Set the probability of an ant building the best tour once the colony has
+     * converged, which determines how far apart the bounds are.
+     * @param probabilityBest   a probability between 0 and 1, 0.05 by default
+     */
+    public void setProbabilityBest (double probabilityBest) {
+        this.probabilityBest = probabilityBest;
+    }
+
+    /**
+     * Set how often the best ant of the run deposits instead of the best ant of the generation.
+     * @param interval          the number of generations between each, 5 by default
+     */
+    public void setBestSoFarInterval (int interval) {
+        this.bestSoFarInterval = interval;
+    }
+
+    /**
+     * Set how many generations without a better tour count as stagnation.
+     * @param generations       the number of generations, 50 by default
+     */
+    public void setStagnationLimit (int generations) {
+        this.stagnationLimit = generations;
+    }
+
+    /**
+     * Set how far the pheromones move towards the upper bound on stagnation.
+     * 1 reinitializes every Edge to the upper bound, while smaller values keep
+     * part of what the colony has learned.
+     * @param smoothing         a fraction between 0 and 1, 1 by default
+     */
+    public void setSmoothing (double smoothing) {
+        this.smoothing = smoothing;
+    }
+
+    @Override
+    public void started (Graph graph) {
+        initialized = false;
+        bestEval = Long.MAX_VALUE;
+        sinceImprovement = 0;
+    }
+
+    /**
+     * Save whether the pheromones have been bounded yet, the best evaluation
+     * and the number of generations it has stood, which decides the next smoothing.
+     */
+    @Override
+    public long[] getState () {
+        return new long[] {initialized ? 1 : 0, bestEval, sinceImprovement};
+    }
+
+    @Override
+    public void resumed (Graph graph, long[] state) {
+        if (state.length != 3) {
+            throw new IllegalArgumentException("The checkpoint was not taken by a MaxMinAntSystem.");
+        }
+        initialized = state[0] != 0;
+        bestEval = state[1];
+        sinceImprovement = (int)state[2];
+    }
+
+    @Override
+    public void updatePheromones (Graph graph, Ant[] ants, Ant iterationBest, Ant bestSoFar, int generation,
+                                  ExecutorService executor, int threads) {
+        Matrix matrix = graph.getMatrix();
+        double max = maximum(graph, bestSoFar.eval());
+        double min = minimum(max, graph.getTotalVertices());
+
+        if (!initialized) {
+            matrix.fill(max);
+            initialized = true;
+        }
+
+        if (bestSoFar.eval() < bestEval) {
+            bestEval = bestSoFar.eval();
+            sinceImprovement = 0;
+        } else {
+            sinceImprovement++;
+        }
+
+        graph.evaporate();
+        if (bestSoFarInterval > 0 && generation % bestSoFarInterval == 0) {
+            graph.deposit(bestSoFar);
+        } else {
+            graph.deposit(iterationBest);
+        }
+        matrix.clamp(min, max);
+
+        if (sinceImprovement >= stagnationLimit) {
+            matrix.smooth(max, smoothing);
+            sinceImprovement = 0;
+        }
+
+        graph.updateChoiceInfo();
+    }
+
+    /**
+     * The upper bound is the pheromone an Edge of the best tour would settle at
+     * if that tour were deposited every generation.
+     */
+    private double maximum (Graph graph, long bestEval) {
+        return 1.0 / (graph.getEvaporationRate() * bestEval);
+    }
+
+    /**
+     * The lower bound is set so that, once converged, an ant builds the best tour
+     * with probability probabilityBest, assuming half the cities are open on average.
+     */
+    private double minimum (double max, int cities) {
+        double root = Math.pow(probabilityBest, 1.0 / cities);
+        double average = cities / 2.0;
+        double min = max * (1 - root) / ((average - 1) * root);
+        return Math.min(min, max);
+    }
+
+}
@@ -0,0 +1,32 @@
+package Ants;
+
+import Graph.Graph;
+
+/**
+ * Receives the progress of a TravelingSalesman run, such as to print it,
+ * log it to a file or draw it to the screen.
+ */
+public interface ProgressListener {
+
+    /**
+     * Called once before the first generation.
+     * @param graph         the graph being solved
+     */
+    default void started (Graph graph) {
+    }
+
+    /**
+     * Called after every generation, once the pheromones have been updated.
+     * @param statistics    the state of the run after the generation
+     */
+    void generation (Statistics statistics);
+
+    /**
+     * Called once after the last generation.
+     * @param best          the ant with the best tour found
+     * @param bestEval      the evaluation of the best tour found
+     */
+    default void finished (Ant best, long bestEval) {
+    }
+
+}
@@ -0,0 +1,247 @@
+package Ants;
+
+import Graph.CandidateList;
+import Graph.Graph;
+import Graph.Matrix;
+
+import java.util.function.Supplier;
+
+/**
+ * Describes the state of a run after a generation: the tours found so far and
+ * how far the pheromones have converged.
+ * <br />
+ * The convergence measures look at the Edges to the nearest neighbours of
+ * each city, which are the Edges the ants mostly choose from, rather than at
+ * every Edge. They are still only computed the first time they are asked
+ * for. The ants of a generation are reused for the next one, so anything
+ * needed about them must be read before the listener returns; only the best
+ * ant is kept as it is.
+ */
+public class Statistics {
+
+    /**
+     * The fraction of the range between the weakest and strongest Edge of a
+     * city that an Edge must reach to count towards the branching factor.
+     */
+    private static final double LAMBDA = 0.05;
+
+    private Graph graph;
+    private Supplier<CandidateList> neighbours;
+    private Ant[] ants;
+    private int generation;
+    private Ant best, iterationBest;
+    private long bestEval;
+    private int sinceImprovement;
+    private long elapsedNanos;
+    private long constructionNanos, localSearchNanos, updateNanos;
+    private long allocatedBytes = -1;
+
+    private double meanEval = -1;
+    private double branchingFactor = -1;
+    private double entropy = -1;
+
+    Statistics (Graph graph, Supplier<CandidateList> neighbours, Ant[] ants, int generation, Ant best,
+                long bestEval, Ant iterationBest, int sinceImprovement, long elapsedNanos) {
+        this.graph = graph;
+        this.neighbours = neighbours;
+        this.ants = ants;
+        this.generation = generation;
+        this.best = best;
+        this.bestEval = bestEval;
+        this.iterationBest = iterationBest;
+        this.sinceImprovement = sinceImprovement;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return      the number of the generation, starting at 0
+     */
+    public int getGeneration () {
+        return generation;
+    }
+
+    /**
+     * @return      the ant with the best tour found so far
+     */
+    public Ant getBest () {
+        return best;
+    }
+
+    /**
+     * @return      the evaluation of the best tour found so far
+     */
+    public long getBestEval () {
+        return bestEval;
+    }
+
+    /**
+     * @return      the evaluation of the best tour of this generation
+     */
+    public long getIterationBestEval () {
+        return iterationBest.eval();
+    }
+
+    /**
+     * @return      the mean evaluation of the tours of this generation
+     */
+    public double getMeanEval () {
+        if (meanEval < 0) {
+            double sum = 0;
+            for (Ant ant : ants) {
+                sum += ant.eval();
+            }
+            meanEval = sum / ants.length;
+        }
+        return meanEval;
+    }
+
+    /**
+     * @return      the number of generations since the best tour last improved
+     */
+    public int getGenerationsWithoutImprovement () {
+        return sinceImprovement;
+    }
+
+    /**
+     * @return      the time since the run started, in nanoseconds
+     */
+    public long getElapsedNanos () {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return      the time the ants took to build and improve their tours this
+     *              generation, in nanoseconds
+     */
+    public long getConstructionNanos () {
+        return constructionNanos;
+    }
+
+    /**
+     * @return      the time spent in local search this generation, added up
+     *              over every thread, in nanoseconds
+     */
+    public long getLocalSearchNanos () {
+        return localSearchNanos;
+    }
+
+    /**
+     * @return      the time taken to update the pheromones this generation, in nanoseconds
+     */
+    public long getUpdateNanos () {
+        return updateNanos;
+    }
+
+    /**
+     * @return      the bytes allocated by the solver and its worker threads this
+     *              generation, or -1 if the JVM cannot measure it
+     */
+    public long getAllocatedBytes () {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return      the number of tours built this generation
+     */
+    public int getTours () {
+        return ants.length;
+    }
+
+    /**
+     * @return      the number of tours built per second this generation
+     */
+    public double getToursPerSecond () {
+        return constructionNanos > 0 ? ants.length * 1e9 / constructionNanos : 0;
+    }
+
+    /**
+     * @return      the number of steps taken by the ants per second this generation
+     */
+    public double getStepsPerSecond () {
+        return getToursPerSecond() * graph.getTotalVertices();
+    }
+
+    /**
+     * Record where the time of the generation went.
+     */
+    void setTimings (long constructionNanos, long localSearchNanos, long updateNanos, long allocatedBytes) {
+        this.constructionNanos = constructionNanos;
+        this.localSearchNanos = localSearchNanos;
+        this.updateNanos = updateNanos;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    /**
+     * Get the lambda-branching factor: the average number of Edges per city
+     * whose pheromone stands out above the weakest Edge of the city. It falls
+     * towards 2 as the colony converges on a single tour, since the pheromones
+     * are symmetric and each city keeps the Edges to both of its tour neighbours.
+     * @return      the average number of Edges per city worth choosing
+     */
+    public double getBranchingFactor () {
+        if (branchingFactor < 0) {
+            computeConvergence();
+        }
+        return branchingFactor;
+    }
+
+    /**
+     * Get the average entropy of the pheromones leaving each city, scaled so
+     * that 1 means all Edges are equally strong and 0 means one Edge holds all
+     * the pheromone.
+     * @return      the average normalised entropy, between 0 and 1
+     */
+    public double getEntropy () {
+        if (entropy < 0) {
+            computeConvergence();
+        }
+        return entropy;
+    }
+
+    private void computeConvergence () {
+        Matrix matrix = graph.getMatrix();
+        CandidateList candidates = neighbours.get();
+        int cities = matrix.size();
+        int width = candidates.size();
+
+        double branches = 0;
+        double entropies = 0;
+
+        for (int i = 0; i < cities; i++) {
+            double min = Double.MAX_VALUE, max = 0, sum = 0;
+
+            for (int k = 0; k < width; k++) {
+                int j = candidates.get(i, k);
+                if (i == j) continue;
+                double p = matrix.getPheromone(i, j);
+                min = Math.min(min, p);
+                max = Math.max(max, p);
+                sum += p;
+            }
+
+            double threshold = min + LAMBDA * (max - min);
+            double h = 0;
+            int count = 0;
+
+            for (int k = 0; k < width; k++) {
+                int j = candidates.get(i, k);
+                if (i == j) continue;
+                double p = matrix.getPheromone(i, j);
+                if (p >= threshold) {
+                    branches++;
+                }
+                if (p > 0) {
+                    double q = p / sum;
+                    h -= q * Math.log(q);
+                }
+                count++;
+            }
+
+            entropies += count > 1 ? h / Math.log(count) : 0;
+        }
+
+        branchingFactor = branches / cities;
+        entropy = entropies / cities;
+    }
+
+}
@@ -0,0 +1,60 @@
+package Ants;
+
+/**
+ * Decides whether a run can stop before it reaches its last generation.
+ */
+public interface StopCriterion {
+
+    /**
+     * Check whether the run should stop after a generation.
+     * @param statistics    the state of the run after the generation
+     * @return              true to stop the run
+     */
+    boolean shouldStop (Statistics statistics);
+
+    /**
+     * Stop once the best tour has not improved for a number of generations.
+     * @param generations   the number of generations without improvement
+     * @return              the StopCriterion
+     */
+    static StopCriterion noImprovement (int generations) {
+        return s -> s.getGenerationsWithoutImprovement() >= generations;
+    }
+
+    /**
+     * Stop once a tour at least as short as the target has been found.
+     * @param length        the target evaluation
+     * @return              the StopCriterion
+     */
+    static StopCriterion targetLength (long length) {
+        return s -> s.getBestEval() <= length;
+    }
+
+    /**
+     * Stop once the run has taken longer than a budget of time.
+     * @param millis        the budget, in milliseconds
+     * @return              the StopCriterion
+     */
+    static StopCriterion timeLimit (long millis) {
+        return s -> s.getElapsedNanos() >= millis * 1_000_000;
+    }
+
+    /**
+     * Stop once the lambda-branching factor falls below a threshold.
+     * @param branchingFactor   the threshold, such as 2.05
+     * @return                  the StopCriterion
+     */
+    static StopCriterion branchingFactorBelow (double branchingFactor) {
+        return s -> s.getBranchingFactor() < branchingFactor;
+    }
+
+    /**
+     * Stop once the average entropy of the pheromones falls below a threshold.
+     * @param entropy       the threshold, between 0 and 1
+     * @return              the StopCriterion
+     */
+    static StopCriterion entropyBelow (double entropy) {
+        return s -> s.getEntropy() < entropy;
+    }
+
+}
@@ -1,15 +1,60 @@
 package Ants;
 
-import Display.*;
 import Graph.*;
+import IO.Checkpoint;
+import Search.LocalSearch;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Solves the Traveling Salesman Problem using vanilla Ant Colony Optimization.
  */
 public class TravelingSalesman {
 
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
     private Graph graph;
     private int numOfAnts, generations;
+    private int threads = 1;
+    private boolean asynchronous;
+    private long seed = System.nanoTime();
+    private ExecutorService executor;
+    private List<ProgressListener> listeners = new ArrayList<>();
+    private List<LocalSearch> localSearches = new ArrayList<>();
+    private Algorithm algorithm = new AntSystem();
+    private List<StopCriterion> stopCriteria = new ArrayList<>();
+    private Path checkpoint;
+    private int checkpointInterval;
+    private Checkpoint resumeFrom;
+    private Queue<int[]> immigrants = new ConcurrentLinkedQueue<>();
+    private List<Thread> workers = new CopyOnWriteArrayList<>();
+    private LongAdder localSearchNanos = new LongAdder();
+
+    /**
+     * The nearest neighbours the convergence of the pheromones is measured over
+     * when the ants are not restricted to any, found the first time it is measured.
+     */
+    private CandidateList neighbours;
 
     /**
      * Construct TravelingSalesman.
@@ -20,71 +65,479 @@ public class TravelingSalesman {
      * @param beta          the impact of distance in decision making
      */
     public TravelingSalesman (int ants, int generations, double evaporation, int alpha, int beta) {
+        this(ants, generations, evaporation, alpha, beta, Graph.Storage.EDGES);
+    }
+
+    /**
+     * Construct TravelingSalesman.
+     * @param ants          the number of ants to run per generation
+     * @param generations   the number of generations to run
+     * @param evaporation   the rate of evaporation
+     * @param alpha         the impact of pheromones on decision making
+     * @param beta          the impact of distance in decision making
+     * @param storage       how the graph stores its distances and pheromones
+     */
+    public TravelingSalesman (int ants, int generations, double evaporation, int alpha, int beta,
+                              Graph.Storage storage) {
+        this(IO.Import.getGraph(evaporation, alpha, beta, storage), ants, generations);
+    }
+
+    /**
+     * Construct TravelingSalesman for a graph that has already been loaded.
+     * @param graph         the graph to find a tour of
+     * @param ants          the number of ants to run per generation
+     * @param generations   the number of generations to run
+     */
+    public TravelingSalesman (Graph graph, int ants, int generations) {
+        this.graph = graph;
         this.numOfAnts = ants;
         this.generations = generations;
-        graph = IO.Import.getGraph(evaporation, alpha, beta);
+    }
+
+    /**
+     * Set the number of threads the ants are spread over while building their tours.
+     * @param threads       the number of worker threads
+     */
+    public void setThreads (int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is required.");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Let the ants run without waiting for each other at the end of a generation.
+     * Each ant deposits its pheromones as soon as its tour is complete and
+     * improved, without taking a lock, then starts on another tour. Meanwhile
+     * run() evaporates the pheromones and refreshes the choice info on a
+     * schedule, once for every generation's worth of tours that finish. A
+     * generation is then simply the next tours to finish, however long the
+     * slowest ant takes. Since the ants see each other's deposits in whatever
+     * order they happen, a seeded asynchronous run is not reproducible.
+     * Only an Algorithm where every ant deposits, such as the AntSystem, can
+     * run this way.
+     * @param asynchronous  true to run the ants asynchronously
+     */
+    public void setAsynchronous (boolean asynchronous) {
+        this.asynchronous = asynchronous;
+    }
+
+    /**
+     * Restrict the ants to choosing among the nearest neighbours of each city,
+     * falling back to the most desirable unvisited city once those are used up.
+     * @param candidates    the number of nearest neighbours kept for each city
+     */
+    public void setCandidates (int candidates) {
+        graph.buildCandidateList(candidates);
+    }
+
+    /**
+     * Set the seed that every random decision of a run is derived from.
+     * Two runs with the same seed produce the same tours, regardless of
+     * the number of threads.
+     * @param seed          the master seed
+     */
+    public void setSeed (long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Save the state of the run to a file every few generations and once more
+     * when it ends, so a run that is stopped can be resumed with resume().
+     * The file is written in the background while the ants carry on.
+     * @param path          the path of the checkpoint file
+     * @param interval      the number of generations between checkpoints
+     */
+    public void setCheckpoint (Path path, int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("The checkpoint interval must be at least one generation.");
+        }
+        this.checkpoint = path;
+        this.checkpointInterval = interval;
+    }
+
+    /**
+     * Carry on from a checkpoint on the next call to run(), instead of starting
+     * from scratch. The seed, pheromones, best tour, generation and the state of
+     * the algorithm are taken from the checkpoint, so the rest of the run
+     * matches the run that was stopped.
+     * @param path          the path of a checkpoint written by a run of the same graph
+     */
+    public void resume (Path path) {
+        Checkpoint resumed = Checkpoint.read(path);
+        if (resumed.getBestCities().length != graph.getTotalVertices()) {
+            throw new IllegalArgumentException("The checkpoint " + path + " was taken from a different graph.");
+        }
+        this.resumeFrom = resumed;
+        this.seed = resumed.getSeed();
+    }
+
+    /**
+     * Get the graph being solved.
+     * @return              the graph
+     */
+    public Graph getGraph () {
+        return graph;
+    }
+
+    /**
+     * Set the variant of Ant Colony Optimization that updates the pheromones.
+     * @param algorithm     the algorithm to use, an AntSystem by default
+     */
+    public void setAlgorithm (Algorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * Add a criterion that can stop a run before its last generation.
+     * The run stops as soon as any of its criteria is met.
+     * @param stopCriterion the criterion to add
+     */
+    public void addStopCriterion (StopCriterion stopCriterion) {
+        stopCriteria.add(stopCriterion);
+    }
+
+    /**
+     * Add a local search that improves the tour of every ant after it is built,
+     * before any pheromones are deposited. Local searches run in the order
+     * they were added, on the same thread as the ant they improve.
+     * @param localSearch   the local search to add
+     */
+    public void addLocalSearch (LocalSearch localSearch) {
+        localSearches.add(localSearch);
+    }
+
+    /**
+     * Add a listener that will be told about the progress of each run.
+     * @param listener      the listener to add
+     */
+    public void addListener (ProgressListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Offer a tour found elsewhere, such as by another colony. It is considered
+     * before the next generation: if it is shorter than the best tour so far it
+     * takes its place and its edges get a deposit of pheromone. Safe to call from
+     * any thread while the run is in progress.
+     * @param cities        the cities of the tour, without the return to the start
+     * @throws IllegalArgumentException if the tour does not visit every city exactly once
+     */
+    public void immigrate (int[] cities) {
+        // Check a copy, so the caller cannot change the tour once it has passed.
+        int[] tour = cities.clone();
+        Ant.checkTour(tour, graph.getTotalVertices());
+        immigrants.add(tour);
     }
 
     /**
      * Run the algorithm.
+     * @return              the ant with the best tour found
      */
-    public void run () {
-        WindowTSP windowTSP = new WindowTSP(graph.getVertices());
+    public Ant run () {
+        if (asynchronous && !algorithm.depositsEveryAnt()) {
+            throw new IllegalStateException("The " + algorithm.getClass().getSimpleName()
+                    + " cannot run asynchronously, since not every ant deposits.");
+        }
 
         Ant bestAnt = null;
-        int bestEval = 0;
+        long bestEval = 0;
+        int sinceImprovement = 0;
+        int first = 0;
+        long start = System.nanoTime();
 
-        delay(1000); // Allow WindowTSP to load.
+        workers.clear();
+        neighbours = null;
+        workers.add(Thread.currentThread());
+        executor = threads > 1 || asynchronous ? Executors.newFixedThreadPool(threads, task -> {
+            Thread worker = new Thread(task, "ant-worker-" + workers.size());
+            workers.add(worker);
+            return worker;
+        }) : null;
+        ExecutorService writer = checkpoint != null ? Executors.newSingleThreadExecutor() : null;
+        Future<?> written = null;
 
-        for (int i = 0; i < generations; i++) {
-            Ant[] ants = createAnts(numOfAnts);
-            Ant ant = travel(ants);
-            updatePheromones(ants);
+        if (resumeFrom != null) {
+            resumeFrom.restore(graph.getMatrix());
+            graph.updateChoiceInfo();
+            bestAnt = new Ant(graph);
+            bestAnt.setCities(resumeFrom.getBestCities());
+            bestEval = bestAnt.eval();
+            sinceImprovement = resumeFrom.getSinceImprovement();
+            first = resumeFrom.getGeneration();
+            algorithm.resumed(graph, resumeFrom.getAlgorithmState());
+            resumeFrom = null;
+        } else {
+            algorithm.started(graph);
+        }
+        for (ProgressListener listener : listeners) {
+            listener.started(graph);
+        }
 
-            if (bestAnt == null) {
-                bestAnt = ant;
-                bestEval = ant.eval();
-            } else if (ant.eval() < bestEval) {
-                bestAnt = ant;
-                bestEval = ant.eval();
+        Ant[] ants = new Ant[numOfAnts];
+        int i = first;
+        BlockingQueue<Ant> completed = new LinkedBlockingQueue<>();
+        AtomicBoolean stopping = new AtomicBoolean();
+        List<Future<Void>> colony = asynchronous ? roam(completed, first, stopping) : null;
+        try {
+            for (; i < generations; i++) {
+                for (int[] cities; (cities = immigrants.poll()) != null; ) {
+                    Ant immigrant = new Ant(graph);
+                    immigrant.setCities(cities);
+                    if (bestAnt == null || immigrant.eval() < bestEval) {
+                        bestAnt = immigrant;
+                        bestEval = immigrant.eval();
+                        sinceImprovement = 0;
+                        if (asynchronous) {
+                            graph.depositConcurrently(immigrant);
+                        } else {
+                            graph.deposit(immigrant);
+                        }
+                        graph.updateChoiceInfo();
+                    }
+                }
+
+                long allocated = allocatedBytes();
+                long constructed = System.nanoTime();
+                localSearchNanos.reset();
+
+                Ant ant;
+                if (asynchronous) {
+                    ant = collect(completed, ants, colony);
+                } else {
+                    placeAnts(ants, i);
+                    ant = travel(ants);
+                }
+                long updated = System.nanoTime();
+
+                // The ants are reused next generation, so the best tour is kept as a copy.
+                if (bestAnt == null) {
+                    bestAnt = ant.copy();
+                    bestEval = ant.eval();
+                } else if (ant.eval() < bestEval) {
+                    bestAnt = ant.copy();
+                    bestEval = ant.eval();
+                    sinceImprovement = 0;
+                } else {
+                    sinceImprovement++;
+                }
+
+                if (asynchronous) {
+                    graph.evaporateConcurrently();
+                    graph.updateChoiceInfo();
+                } else {
+                    algorithm.updatePheromones(graph, ants, ant, bestAnt, i, executor, threads);
+                }
+                long finished = System.nanoTime();
+
+                if (writer != null && (i + 1 - first) % checkpointInterval == 0) {
+                    written = saveCheckpoint(writer, written, i + 1, bestAnt, bestEval, sinceImprovement);
+                }
+
+                Statistics statistics = new Statistics(graph, this::neighbours, ants, i, bestAnt, bestEval, ant,
+                        sinceImprovement, System.nanoTime() - start);
+                statistics.setTimings(updated - constructed, localSearchNanos.sum(), finished - updated,
+                        allocated < 0 ? -1 : allocatedBytes() - allocated);
+
+                for (ProgressListener listener : listeners) {
+                    listener.generation(statistics);
+                }
+
+                if (shouldStop(statistics)) {
+                    i++;
+                    break;
+                }
+            }
+
+            if (colony != null) {
+                stopping.set(true);
+                // Wait for the tours still under way, so no deposit lands after the run.
+                for (Future<Void> future : colony) {
+                    check(future);
+                }
             }
 
-            windowTSP.draw(bestAnt.getTour());
+            if (writer != null && bestAnt != null) {
+                written = saveCheckpoint(writer, written, i, bestAnt, bestEval, sinceImprovement);
+                await(written);
+            }
+        } finally {
+            stopping.set(true);
+            if (executor != null) {
+                executor.shutdown();
+                executor = null;
+            }
+            if (writer != null) {
+                writer.shutdown();
+            }
+        }
+
+        for (ProgressListener listener : listeners) {
+            listener.finished(bestAnt, bestEval);
+        }
+
+        return bestAnt;
+    }
+
+    /**
+     * Take a snapshot of the run and write it to the checkpoint file in the
+     * background. A checkpoint is only started once the previous one is on
+     * disk, so a slow disk holds the run back rather than piling up snapshots.
+     * A Matrix too large to copy writes its pheromones in place, so the run
+     * then waits for the checkpoint before it changes them again.
+     * @param writer        the thread that writes the checkpoints
+     * @param previous      the previous checkpoint being written, or null
+     * @param generation    the number of the next generation to run
+     * @param bestAnt       the ant with the best tour so far
+     * @param bestEval      the evaluation of the best tour so far
+     * @param sinceImprovement  the number of generations since the best tour improved
+     * @return              the checkpoint being written
+     */
+    private Future<?> saveCheckpoint (ExecutorService writer, Future<?> previous, int generation,
+                                      Ant bestAnt, long bestEval, int sinceImprovement) {
+        Snapshot pheromones = graph.getMatrix().snapshot();
+        Checkpoint snapshot = new Checkpoint(seed, generation, bestEval, sinceImprovement, bestAnt.getCities(),
+                algorithm.getState(), pheromones);
+        await(previous);
+        Path path = checkpoint;
+        Future<?> written = writer.submit(() -> snapshot.write(path));
+        if (!pheromones.isCopy()) {
+            await(written);
+        }
+        return written;
+    }
+
+    /**
+     * Add up the bytes allocated so far by the thread running the loop and the worker threads.
+     * @return              the bytes allocated, or -1 if the JVM cannot measure it
+     */
+    private long allocatedBytes () {
+        if (!(THREADS instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean)THREADS;
+        if (!threads.isThreadAllocatedMemoryEnabled()) {
+            return -1;
         }
 
-        System.out.print("Best Tour: ");
-        System.out.println(bestAnt);
-        System.out.println("Evaluation: " + bestEval);
+        long[] ids = new long[workers.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = workers.get(i).getId();
+        }
+        long sum = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(ids)) {
+            sum += Math.max(0, bytes);
+        }
+        return sum;
     }
 
     /**
-     * Create ants and put them on random starting positions on the graph.
-     * @param quantity  the quantity of ants to create
-     * @return          an array of the ants created
+     * Wait for a checkpoint to be written.
+     * @param written       the checkpoint being written, or null
      */
-    private Ant[] createAnts (int quantity) {
-        Ant[] ants = new Ant[quantity];
-        for (int i = 0; i < quantity; i++) {
-            ants[i] = new Ant(graph);
+    private void await (Future<?> written) {
+        if (written == null) {
+            return;
+        }
+        try {
+            written.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while writing a checkpoint.", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Could not write a checkpoint.", ex.getCause());
         }
-        return ants;
     }
 
     /**
-     * Let each ant in the input array travel until an entire tour is completed.
+     * Check whether any of the stop criteria are met.
+     * @param statistics    the state of the run after a generation
+     * @return              true if the run should stop
+     */
+    private boolean shouldStop (Statistics statistics) {
+        for (StopCriterion stopCriterion : stopCriteria) {
+            if (stopCriterion.shouldStop(statistics)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Put the ants on random starting positions on the graph, creating them on
+     * the first generation and restarting the same ants on every later one.
+     * Each ant gets a generator split in order from one derived from the master
+     * seed and the generation, so the ants behave the same no matter which thread
+     * runs them, and a resumed run needs nothing more than the generation.
+     * @param ants          the ants of the run, null until they are created
+     * @param generation    the number of the generation
+     */
+    private void placeAnts (Ant[] ants, int generation) {
+        SplittableRandom random = new SplittableRandom(mix(seed + generation * 0x9E3779B97F4A7C15L));
+        for (int i = 0; i < ants.length; i++) {
+            if (ants[i] == null) {
+                ants[i] = new Ant(graph, random.split(), algorithm);
+            } else {
+                ants[i].restart(random.split());
+            }
+        }
+    }
+
+    /**
+     * Scramble the bits of a seed, so that consecutive generations get
+     * unrelated generators rather than overlapping streams of the same one
+     * (the finalizer of SplitMix64).
+     * @param z     the value to scramble
+     * @return      the scrambled value
+     */
+    private static long mix (long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Let each ant in the input array travel until an entire tour is completed,
+     * then improve the tour with the local searches. Unless the algorithm updates
+     * the pheromones locally, the ants only read them while travelling, so they
+     * are split into one slice per thread and run concurrently.
      * @param ants      the ants to allow to travel
      * @return          the ant with the best evaluation
      */
     private Ant travel (Ant[] ants) {
 
-        Ant bestAnt = null;
-        int bestEval = 0;
+        if (algorithm.updatesLocally()) {
+            travelInLockstep(ants);
+        } else if (executor == null) {
+            travel(ants, 0, ants.length);
+        } else {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            int slice = (ants.length + threads - 1) / threads;
 
-        for (Ant ant : ants) {
-            while (ant.notFinished()) {
-                ant.travel();
+            for (int start = 0; start < ants.length; start += slice) {
+                int from = start;
+                int to = Math.min(ants.length, start + slice);
+                tasks.add(() -> {
+                    travel(ants, from, to);
+                    return null;
+                });
             }
+            run(tasks);
+        }
 
+        return best(ants);
+    }
+
+    /**
+     * Find the ant with the shortest tour.
+     * @param ants      the ants with completed tours
+     * @return          the ant with the best evaluation
+     */
+    private static Ant best (Ant[] ants) {
+        Ant bestAnt = null;
+        long bestEval = 0;
+
+        for (Ant ant : ants) {
             if (bestAnt == null) {
                 bestAnt = ant;
                 bestEval = ant.eval();
@@ -98,25 +551,215 @@ public class TravelingSalesman {
     }
 
     /**
-     * Update the pheromones in the graph based on an array of ants with
-     * completed tours.
-     * @param ants  the ants that will be used to update the pheromones
+     * Start the ants of an asynchronous run, one on each worker thread. Each
+     * builds and improves a tour, deposits its pheromones straight away, hands
+     * a copy of itself to run() and starts the next tour, until every tour of
+     * the run has been built or the run stops. Tour t draws from a generator
+     * derived from the master seed and t, whichever thread builds it.
+     * @param finished      where the ants with completed tours are handed over
+     * @param generation    the number of the generation the run starts from
+     * @param stopping      set once the run no longer needs any more tours
+     * @return              the ants on the worker threads
      */
-    private void updatePheromones (Ant[] ants) {
+    private List<Future<Void>> roam (BlockingQueue<Ant> finished, int generation, AtomicBoolean stopping) {
+        AtomicLong tours = new AtomicLong((long)generation * numOfAnts);
+        long last = (long)generations * numOfAnts;
+        List<Future<Void>> colony = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            // Created here, so that the Graph finishes building its Matrix and ChoiceInfo on this thread.
+            Ant ant = new Ant(graph, new SplittableRandom(seed), algorithm);
+            colony.add(executor.submit(() -> {
+                for (long tour; !stopping.get() && (tour = tours.getAndIncrement()) < last; ) {
+                    ant.restart(new SplittableRandom(mix(seed + tour * 0x9E3779B97F4A7C15L)));
+                    while (ant.notFinished()) {
+                        ant.travel();
+                    }
+                    improve(ant);
+                    graph.depositConcurrently(ant);
+                    finished.add(ant.copy());
+                }
+                return null;
+            }));
+        }
+        return colony;
+    }
+
+    /**
+     * Wait for the next generation's worth of tours of an asynchronous run,
+     * in the order they finish.
+     * @param finished      where the ants hand over their completed tours
+     * @param ants          filled with the ants of the generation
+     * @param colony        the ants on the worker threads, checked for failures while waiting
+     * @return              the ant with the best evaluation
+     */
+    private Ant collect (BlockingQueue<Ant> finished, Ant[] ants, List<Future<Void>> colony) {
+        for (int k = 0; k < ants.length; ) {
+            Ant ant;
+            try {
+                ant = finished.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while the ants were travelling.", ex);
+            }
+            if (ant != null) {
+                ants[k++] = ant;
+                continue;
+            }
+
+            boolean done = true;
+            for (Future<Void> future : colony) {
+                if (future.isDone()) {
+                    check(future);
+                } else {
+                    done = false;
+                }
+            }
+            if (done && finished.isEmpty()) {
+                throw new IllegalStateException("The ants stopped before the generation was complete.");
+            }
+        }
+        return best(ants);
+    }
+
+    /**
+     * Wait for an ant of an asynchronous run to stop, passing on its failure if it failed.
+     * @param future        the ant on its worker thread
+     */
+    private void check (Future<Void> future) {
+        try {
+            future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while the ants were travelling.", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("An ant failed to complete its tour.", ex.getCause());
+        }
+    }
+
+    /**
+     * Let the ants travel one step at a time, all taking their step before the
+     * local updates of that step are applied in the order of the ants, so the
+     * tours are the same no matter how the steps are spread over the threads.
+     * Then improve the tours with the local searches.
+     * <br />
+     * Each thread keeps its slice of ants for the whole generation and waits at
+     * a barrier after every step, where the last thread to arrive applies the
+     * local updates. That is still one hand-off between the threads per city,
+     * so the threads only pay off once a step of each slice outweighs it.
+     * @param ants      the ants to allow to travel
+     */
+    private void travelInLockstep (Ant[] ants) {
+        List<Callable<Void>> slices = new ArrayList<>();
+        int slice = executor == null ? ants.length : (ants.length + threads - 1) / threads;
+        int count = ants.length == 0 ? 0 : (ants.length + slice - 1) / slice;
+        CyclicBarrier barrier = new CyclicBarrier(Math.max(1, count), () -> {
+            for (Ant ant : ants) {
+                ant.applyLocalUpdate();
+            }
+        });
+
         for (Ant ant : ants) {
-            graph.updatePheromone(ant);
+            ant.deferLocalUpdates();
+        }
+        for (int start = 0; start < ants.length; start += slice) {
+            int from = start;
+            int to = Math.min(ants.length, start + slice);
+            slices.add(() -> {
+                try {
+                    // Every ant takes the same number of steps, so the first of the slice speaks for all.
+                    while (ants[from].notFinished()) {
+                        for (int i = from; i < to; i++) {
+                            ants[i].travel();
+                        }
+                        barrier.await();
+                    }
+                } catch (RuntimeException | Error ex) {
+                    // Release the other slices from the barrier rather than leave them waiting.
+                    barrier.reset();
+                    throw ex;
+                }
+                for (int i = from; i < to; i++) {
+                    improve(ants[i]);
+                }
+                return null;
+            });
+        }
+        run(slices);
+    }
+
+    /**
+     * Get the nearest neighbours of each city that the convergence of the
+     * pheromones is measured over: those the ants are restricted to, or else
+     * up to SPARSE_CANDIDATES of them, so the measure never reads every Edge.
+     * @return          the nearest neighbours
+     */
+    private CandidateList neighbours () {
+        CandidateList candidates = graph.getCandidateList();
+        if (candidates != null) {
+            return candidates;
+        }
+        if (neighbours == null) {
+            int size = Math.min(Graph.SPARSE_CANDIDATES, graph.getTotalVertices() - 1);
+            neighbours = new CandidateList(graph.getMatrix(), size);
         }
+        return neighbours;
     }
 
     /**
-     * Sleep the thread for a specified amount of time.
-     * @param ms    milliseconds to sleep for
+     * Run tasks on the worker threads, or on this thread if there are none,
+     * and wait for all of them to finish.
+     * @param tasks     the tasks to run
      */
-    private static void delay (int ms) {
+    private void run (List<Callable<Void>> tasks) {
         try {
-            Thread.sleep(ms);
+            if (executor == null) {
+                for (Callable<Void> task : tasks) {
+                    task.call();
+                }
+            } else {
+                for (Future<Void> future : executor.invokeAll(tasks)) {
+                    future.get();
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while the ants were travelling.", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("An ant failed to complete its tour.", ex.getCause());
         } catch (Exception ex) {
-            ex.printStackTrace();
+            throw new IllegalStateException("An ant failed to complete its tour.", ex);
+        }
+    }
+
+    /**
+     * Let a range of ants travel until each has completed an entire tour.
+     * @param ants      the ants to allow to travel
+     * @param from      the index of the first ant, inclusive
+     * @param to        the index of the last ant, exclusive
+     */
+    private void travel (Ant[] ants, int from, int to) {
+        for (int i = from; i < to; i++) {
+            while (ants[i].notFinished()) {
+                ants[i].travel();
+            }
+            improve(ants[i]);
+        }
+    }
+
+    /**
+     * Improve the tour of an ant with the local searches.
+     * @param ant       the ant with a completed tour
+     */
+    private void improve (Ant ant) {
+        if (!localSearches.isEmpty()) {
+            long start = System.nanoTime();
+            int[] cities = ant.getCities();
+            for (LocalSearch localSearch : localSearches) {
+                localSearch.improve(cities);
+            }
+            ant.setCities(cities);
+            localSearchNanos.add(System.nanoTime() - start);
         }
     }
 
@@ -0,0 +1,215 @@
+package Batch;
+
+import Ants.Ant;
+import Ants.TravelingSalesman;
+import Graph.Graph;
+import IO.Import;
+import IO.Instance;
+import IO.TSPLIB;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Solves many jobs concurrently on a bounded pool of workers. Each job runs on
+ * a single thread, and a job only reads its file once the memory it is estimated
+ * to need fits in the budget alongside the jobs already running, so a batch of
+ * large instances queues up instead of running out of heap. The estimate only
+ * needs the header of the file, and each graph is stored the way Main stores a
+ * single file, sparsely if it would not fit in the budget otherwise.
+ */
+public class BatchSolver {
+
+    private int workers;
+    private long memoryBudget;
+    private long memoryReserved;
+    private int running;
+    private Graph.Precision precision;
+    private int candidates = Graph.SPARSE_CANDIDATES;
+    private BiConsumer<TravelingSalesman, Graph> configuration = (tsp, graph) -> { };
+    private List<Consumer<Result>> listeners = new ArrayList<>();
+    private Consumer<Result> writer = result -> { };
+
+    /**
+     * Construct the BatchSolver.
+     * @param workers       the number of jobs that may run at once
+     * @param memoryBudget  the number of bytes the running jobs may use between them
+     */
+    public BatchSolver (int workers, long memoryBudget) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("At least one worker is required.");
+        }
+        this.workers = workers;
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Construct the BatchSolver with three quarters of the maximum heap as its memory budget.
+     * @param workers       the number of jobs that may run at once
+     */
+    public BatchSolver (int workers) {
+        this(workers, Runtime.getRuntime().maxMemory() / 4 * 3);
+    }
+
+    /**
+     * Set how the solver of each job is configured before it runs, such as its
+     * algorithm, local searches and stop criteria. It is called once per job, so
+     * it should create new objects for each solver rather than share them.
+     * @param configuration the configuration, given the solver and its graph
+     */
+    public void setConfiguration (BiConsumer<TravelingSalesman, Graph> configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Store each graph that fits compactly, at a reduced precision, instead of densely.
+     * @param precision     the precision of the pheromones, or null for dense storage
+     */
+    public void setPrecision (Graph.Precision precision) {
+        this.precision = precision;
+    }
+
+    /**
+     * Set how many nearest neighbours the configuration keeps for each city of
+     * a sparse graph, so that the memory of the job can be estimated.
+     * @param candidates    the number of neighbours, Graph.SPARSE_CANDIDATES unless set
+     */
+    public void setCandidates (int candidates) {
+        this.candidates = candidates;
+    }
+
+    /**
+     * Add a listener that is given the result of each job as soon as it finishes,
+     * on the thread that ran it. A listener that throws marks the result of that
+     * job as failed, and neither stops the other listeners nor the other jobs.
+     * @param listener      the listener to add
+     */
+    public void addListener (Consumer<Result> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Set where the result of each job is recorded, once every listener has been
+     * given it, so that a listener that fails is recorded as a failure too.
+     * @param writer        records the result, on the thread that ran the job
+     */
+    public void setWriter (Consumer<Result> writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Solve every job. A job that fails does not stop the others; its result
+     * records the error instead.
+     * @param jobs          the jobs to solve
+     * @return              the results, in the same order as the jobs
+     */
+    public List<Result> solve (List<Job> jobs) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(workers, Math.max(1, jobs.size())));
+        List<Future<Result>> futures = new ArrayList<>();
+        List<Result> results = new ArrayList<>();
+
+        try {
+            for (Job job : jobs) {
+                futures.add(executor.submit(() -> solve(job)));
+            }
+            for (Future<Result> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while solving the batch.", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("A job failed to report its result.", ex.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return results;
+    }
+
+    /**
+     * Load and solve a single job, then tell the listeners its result and record it.
+     */
+    private Result solve (Job job) throws InterruptedException {
+        Result result;
+        try {
+            result = run(job);
+        } catch (RuntimeException | OutOfMemoryError ex) {
+            result = new Result(job, ex.toString());
+        }
+
+        for (Consumer<Result> listener : listeners) {
+            try {
+                listener.accept(result);
+            } catch (RuntimeException ex) {
+                result.fail("A listener failed: " + ex);
+            }
+        }
+        try {
+            writer.accept(result);
+        } catch (RuntimeException ex) {
+            result.fail("The result could not be recorded: " + ex);
+        }
+        return result;
+    }
+
+    private Result run (Job job) throws InterruptedException {
+        int cities = TSPLIB.readDimension(job.getPath());
+        Graph.Storage storage = Graph.chooseStorage(cities, precision, memoryBudget);
+        long memory = job.estimateMemory(cities, storage, candidates);
+
+        reserve(memory);
+        try {
+            long start = System.nanoTime();
+            Instance instance = TSPLIB.read(job.getPath());
+            Graph graph = Import.getGraph(instance, job.getEvaporation(), job.getAlpha(), job.getBeta(), storage);
+            if (storage == Graph.Storage.COMPACT) {
+                graph.setPrecision(precision);
+            }
+            long loaded = System.nanoTime();
+
+            TravelingSalesman tsp = new TravelingSalesman(graph, job.getAnts(), job.getGenerations());
+            tsp.setSeed(job.getSeed());
+            configuration.accept(tsp, graph);
+            Ant best = tsp.run();
+            long solved = System.nanoTime();
+
+            int[] tour = best.getCities();
+            for (int i = 0; i < tour.length; i++) {
+                tour[i]++;
+            }
+
+            String name = instance.getName().isEmpty() ? job.getPath().getFileName().toString() : instance.getName();
+            return new Result(job, name, instance.getDimension(), best.eval(), tour,
+                    (loaded - start) / 1_000_000, (solved - loaded) / 1_000_000, memory);
+        } finally {
+            release(memory);
+        }
+    }
+
+    /**
+     * Wait until the memory a job needs fits in the budget. A job that needs more
+     * than the whole budget is still run, but only once nothing else is running.
+     * @param memory        the estimated memory in bytes
+     */
+    private synchronized void reserve (long memory) throws InterruptedException {
+        while (running > 0 && memoryReserved + memory > memoryBudget) {
+            wait();
+        }
+        memoryReserved += memory;
+        running++;
+    }
+
+    private synchronized void release (long memory) {
+        memoryReserved -= memory;
+        running--;
+        notifyAll();
+    }
+
+}
@@ -0,0 +1,168 @@
+package Batch;
+
+import Graph.Graph;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * A TSPLIB file and the parameters to solve it with.
+ */
+public class Job {
+
+    public static final int DEFAULT_ANTS = 100;
+    public static final int DEFAULT_GENERATIONS = 100;
+    public static final double DEFAULT_EVAPORATION = 0.1;
+    public static final int DEFAULT_ALPHA = 1;
+    public static final int DEFAULT_BETA = 5;
+
+    private Path path;
+    private int ants, generations;
+    private double evaporation;
+    private int alpha, beta;
+    private long seed;
+
+    /**
+     * Construct the Job.
+     * @param path          the path of the TSPLIB file
+     * @param ants          the number of ants to run per generation
+     * @param generations   the number of generations to run
+     * @param evaporation   the rate of evaporation
+     * @param alpha         the impact of pheromones on decision making
+     * @param beta          the impact of distance in decision making
+     * @param seed          the master seed of the run
+     */
+    public Job (Path path, int ants, int generations, double evaporation, int alpha, int beta, long seed) {
+        if (ants < 1 || generations < 1) {
+            throw new IllegalArgumentException("A job needs at least one ant and one generation.");
+        }
+        this.path = path;
+        this.ants = ants;
+        this.generations = generations;
+        this.evaporation = evaporation;
+        this.alpha = alpha;
+        this.beta = beta;
+        this.seed = seed;
+    }
+
+    /**
+     * Construct a Job with the default parameters.
+     * @param path          the path of the TSPLIB file
+     * @param seed          the master seed of the run
+     */
+    public Job (Path path, long seed) {
+        this(path, DEFAULT_ANTS, DEFAULT_GENERATIONS, DEFAULT_EVAPORATION, DEFAULT_ALPHA, DEFAULT_BETA, seed);
+    }
+
+    public Path getPath () {
+        return path;
+    }
+
+    public int getAnts () {
+        return ants;
+    }
+
+    public int getGenerations () {
+        return generations;
+    }
+
+    public double getEvaporation () {
+        return evaporation;
+    }
+
+    public int getAlpha () {
+        return alpha;
+    }
+
+    public int getBeta () {
+        return beta;
+    }
+
+    public long getSeed () {
+        return seed;
+    }
+
+    /**
+     * Estimate the memory a run of this job needs once its file is loaded:
+     * the graph in the storage it is kept in and the tours of a generation of ants.
+     * @param cities        the number of cities in the file
+     * @param storage       how the graph is stored, DENSE, COMPACT or SPARSE
+     * @param candidates    the number of neighbours a SPARSE graph keeps for each city
+     * @return              the estimate in bytes
+     */
+    public long estimateMemory (int cities, Graph.Storage storage, int candidates) {
+        long tours = ants * (long)cities * 64;
+        return Graph.estimateBytes(cities, storage, candidates) + tours;
+    }
+
+    /**
+     * Read the jobs of a batch. A directory gives one job for every .tsp file in
+     * it, with the default parameters. Any other file is a manifest with one job
+     * per line:
+     * <pre>
+     * path [ants generations evaporation alpha beta [seed]]
+     * </pre>
+     * Blank lines and lines starting with '#' are skipped, and relative paths are
+     * resolved against the directory of the manifest. The same file may appear on
+     * several lines to solve it with different parameters.
+     * @param path          a directory of TSPLIB files, or a manifest
+     * @param seed          the seed of jobs that do not set their own
+     * @return              the jobs, in order
+     */
+    public static List<Job> read (Path path, long seed) {
+        List<Job> jobs = new ArrayList<>();
+
+        try {
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> files = Files.list(path)) {
+                    files.filter(file -> file.getFileName().toString().endsWith(".tsp"))
+                            .sorted()
+                            .forEach(file -> jobs.add(new Job(file, seed)));
+                }
+                return jobs;
+            }
+
+            Path directory = path.toAbsolutePath().getParent();
+            int number = 0;
+            for (String line : Files.readAllLines(path)) {
+                number++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                jobs.add(parse(directory, line, number, seed));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not read the batch " + path, ex);
+        }
+
+        return jobs;
+    }
+
+    private static Job parse (Path directory, String line, int number, long seed) {
+        String[] fields = line.split("\\s+");
+        Path file = directory.resolve(fields[0]);
+
+        if (fields.length == 1) {
+            return new Job(file, seed);
+        }
+        if (fields.length != 6 && fields.length != 7) {
+            throw new IllegalArgumentException("Line " + number + " of the manifest should have a path, "
+                    + "optionally followed by ants, generations, evaporation, alpha, beta and a seed.");
+        }
+
+        try {
+            return new Job(file, Integer.parseInt(fields[1]), Integer.parseInt(fields[2]),
+                    Double.parseDouble(fields[3]), Integer.parseInt(fields[4]), Integer.parseInt(fields[5]),
+                    fields.length == 7 ? Long.parseLong(fields[6]) : seed);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Line " + number + " of the manifest has an invalid number.", ex);
+        }
+    }
+
+}
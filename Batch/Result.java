@@ -0,0 +1,94 @@
+package Batch;
+
+/**
+ * The outcome of a Job: the best tour found and how long it took, or the
+ * error that stopped it.
+ */
+public class Result {
+
+    private Job job;
+    private String name;
+    private int cities;
+    private long bestEval;
+    private int[] tour;
+    private long loadMillis, solveMillis;
+    private long estimatedMemory;
+    private String error;
+
+    Result (Job job, String name, int cities, long bestEval, int[] tour, long loadMillis, long solveMillis,
+            long estimatedMemory) {
+        this.job = job;
+        this.name = name;
+        this.cities = cities;
+        this.bestEval = bestEval;
+        this.tour = tour;
+        this.loadMillis = loadMillis;
+        this.solveMillis = solveMillis;
+        this.estimatedMemory = estimatedMemory;
+    }
+
+    Result (Job job, String error) {
+        this.job = job;
+        this.name = job.getPath().getFileName().toString();
+        this.tour = new int[0];
+        this.error = error;
+    }
+
+    /**
+     * Record an error that struck after the job was solved, keeping the first error if there are several.
+     */
+    void fail (String error) {
+        if (this.error == null) {
+            this.error = error;
+        }
+    }
+
+    public Job getJob () {
+        return job;
+    }
+
+    public String getName () {
+        return name;
+    }
+
+    public int getCities () {
+        return cities;
+    }
+
+    public long getBestEval () {
+        return bestEval;
+    }
+
+    /**
+     * Get the best tour.
+     * @return      the cities of the tour, numbered from 1 as in TSPLIB, without the return to the start
+     */
+    public int[] getTour () {
+        return tour;
+    }
+
+    public long getLoadMillis () {
+        return loadMillis;
+    }
+
+    public long getSolveMillis () {
+        return solveMillis;
+    }
+
+    public long getEstimatedMemory () {
+        return estimatedMemory;
+    }
+
+    /**
+     * Check whether the job failed.
+     * @return      true if the job failed, in which case getError() says why
+     */
+    public boolean failed () {
+        return error != null;
+    }
+
+    public String getError () {
+        return error;
+    }
+
+}
@@ -0,0 +1,150 @@
+package Batch;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Writes the results of a batch to a file as the jobs finish, one line per job.
+ * Files ending in .jsonl or .json are written as JSON lines, anything else as CSV.
+ * Each line is flushed as soon as it is written, so the results of finished jobs
+ * survive a batch that is killed part way.
+ */
+public class ResultWriter implements Closeable {
+
+    private static final String HEADER = "name,file,cities,ants,generations,evaporation,alpha,beta,seed,"
+            + "best,load_ms,solve_ms,estimated_mb,tour,error";
+
+    private Path path;
+    private BufferedWriter writer;
+    private boolean json;
+
+    /**
+     * Construct the ResultWriter, replacing the file if it exists.
+     * @param path      the path of the results file
+     */
+    public ResultWriter (Path path) {
+        String file = path.getFileName().toString();
+        this.path = path;
+        this.json = file.endsWith(".jsonl") || file.endsWith(".json");
+
+        try {
+            writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+            if (!json) {
+                writer.write(HEADER);
+                writer.newLine();
+                writer.flush();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not create " + path, ex);
+        }
+    }
+
+    /**
+     * Write the result of a job. Safe to call from the threads running the jobs.
+     * @param result    the result to write
+     */
+    public synchronized void write (Result result) {
+        try {
+            writer.write(json ? toJson(result) : toCsv(result));
+            writer.newLine();
+            writer.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write to " + path, ex);
+        }
+    }
+
+    @Override
+    public synchronized void close () {
+        try {
+            writer.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not close " + path, ex);
+        }
+    }
+
+    private static String toCsv (Result result) {
+        Job job = result.getJob();
+        StringBuilder tour = new StringBuilder();
+        for (int city : result.getTour()) {
+            if (tour.length() > 0) {
+                tour.append(' ');
+            }
+            tour.append(city);
+        }
+
+        return String.join(",", csv(result.getName()), csv(job.getPath().toString()),
+                Integer.toString(result.getCities()), Integer.toString(job.getAnts()),
+                Integer.toString(job.getGenerations()), Double.toString(job.getEvaporation()),
+                Integer.toString(job.getAlpha()), Integer.toString(job.getBeta()), Long.toString(job.getSeed()),
+                result.failed() ? "" : Long.toString(result.getBestEval()),
+                Long.toString(result.getLoadMillis()), Long.toString(result.getSolveMillis()),
+                String.format(Locale.ROOT, "%.1f", result.getEstimatedMemory() / 1048576.0),
+                tour.toString(), result.failed() ? csv(result.getError()) : "");
+    }
+
+    private static String toJson (Result result) {
+        Job job = result.getJob();
+        StringBuilder json = new StringBuilder("{");
+        json.append("\"name\":").append(json(result.getName()));
+        json.append(",\"file\":").append(json(job.getPath().toString()));
+        json.append(",\"cities\":").append(result.getCities());
+        json.append(",\"ants\":").append(job.getAnts());
+        json.append(",\"generations\":").append(job.getGenerations());
+        json.append(",\"evaporation\":").append(job.getEvaporation());
+        json.append(",\"alpha\":").append(job.getAlpha());
+        json.append(",\"beta\":").append(job.getBeta());
+        json.append(",\"seed\":").append(job.getSeed());
+        if (result.failed()) {
+            json.append(",\"error\":").append(json(result.getError()));
+        } else {
+            json.append(",\"best\":").append(result.getBestEval());
+            json.append(",\"load_ms\":").append(result.getLoadMillis());
+            json.append(",\"solve_ms\":").append(result.getSolveMillis());
+            json.append(",\"estimated_bytes\":").append(result.getEstimatedMemory());
+            json.append(",\"tour\":[");
+            int[] tour = result.getTour();
+            for (int i = 0; i < tour.length; i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                json.append(tour[i]);
+            }
+            json.append(']');
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * Quote a CSV field if it contains a separator, quote or line break.
+     */
+    private static String csv (String field) {
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0) {
+            return field;
+        }
+        return '"' + field.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Quote a JSON string, escaping quotes, backslashes and control characters.
+     */
+    private static String json (String value) {
+        StringBuilder json = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int)c));
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append('"').toString();
+    }
+
+}
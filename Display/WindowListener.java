@@ -0,0 +1,56 @@
+package Display;
+
+import Ants.Ant;
+import Ants.ProgressListener;
+import Ants.Statistics;
+import Graph.Graph;
+
+/**
+ * Draws the best tour of a run in a WindowTSP.
+ * <br />
+ * Generations can finish far faster than the screen refreshes, so the
+ * window is only redrawn a limited number of times per second. The final
+ * tour is always drawn.
+ */
+public class WindowListener implements ProgressListener {
+
+    private WindowTSP windowTSP;
+    private long frameNanos;
+    private long lastFrame;
+
+    /**
+     * Construct a WindowListener that redraws at most 30 times per second.
+     */
+    public WindowListener () {
+        this(30);
+    }
+
+    /**
+     * Construct a WindowListener.
+     * @param framesPerSecond   the most times per second the window is redrawn
+     */
+    public WindowListener (int framesPerSecond) {
+        this.frameNanos = 1_000_000_000L / framesPerSecond;
+    }
+
+    @Override
+    public void started (Graph graph) {
+        windowTSP = new WindowTSP(graph.getVertices());
+        lastFrame = System.nanoTime() - frameNanos;
+    }
+
+    @Override
+    public void generation (Statistics statistics) {
+        long now = System.nanoTime();
+        if (now - lastFrame >= frameNanos) {
+            lastFrame = now;
+            windowTSP.draw(statistics.getBest().getTour());
+        }
+    }
+
+    @Override
+    public void finished (Ant best, long bestEval) {
+        windowTSP.draw(best.getTour());
+    }
+
+}
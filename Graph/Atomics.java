@@ -0,0 +1,96 @@
+package Graph;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Lock-free read-modify-write operations on the elements of flat arrays of
+ * pheromones, and of buffers of them outside the heap, for deposits and
+ * evaporation that run on several threads at once.
+ * <br />
+ * Each element is updated with a compare-and-set loop, so an update is only
+ * retried when another thread changed the same element in the meantime, and
+ * none is ever lost. Threads updating different elements never wait.
+ */
+final class Atomics {
+
+    private static final VarHandle DOUBLES = MethodHandles.arrayElementVarHandle(double[].class);
+    private static final VarHandle FLOATS = MethodHandles.arrayElementVarHandle(float[].class);
+    private static final VarHandle BUFFER_DOUBLES = MethodHandles.byteBufferViewVarHandle(double[].class,
+            ByteOrder.nativeOrder());
+
+    private Atomics () {
+    }
+
+    /**
+     * Add an amount to an element.
+     */
+    static void add (double[] array, int index, double amount) {
+        double current;
+        do {
+            current = array[index];
+        } while (!DOUBLES.weakCompareAndSet(array, index, current, current + amount));
+    }
+
+    /**
+     * Multiply every element of a range by the same factor.
+     */
+    static void scale (double[] array, int from, int to, double factor) {
+        for (int i = from; i < to; i++) {
+            double current;
+            do {
+                current = array[i];
+            } while (!DOUBLES.weakCompareAndSet(array, i, current, current * factor));
+        }
+    }
+
+    /**
+     * Add an amount to an element.
+     */
+    static void add (float[] array, int index, float amount) {
+        float current;
+        do {
+            current = array[index];
+        } while (!FLOATS.weakCompareAndSet(array, index, current, current + amount));
+    }
+
+    /**
+     * Multiply every element of a range by the same factor.
+     */
+    static void scale (float[] array, int from, int to, float factor) {
+        for (int i = from; i < to; i++) {
+            float current;
+            do {
+                current = array[i];
+            } while (!FLOATS.weakCompareAndSet(array, i, current, current * factor));
+        }
+    }
+
+    /**
+     * Add an amount to an element of a direct or mapped buffer of doubles in
+     * the native byte order, counting the index in doubles.
+     */
+    static void add (ByteBuffer buffer, int index, double amount) {
+        int offset = index * Double.BYTES;
+        double current;
+        do {
+            current = (double)BUFFER_DOUBLES.get(buffer, offset);
+        } while (!BUFFER_DOUBLES.weakCompareAndSet(buffer, offset, current, current + amount));
+    }
+
+    /**
+     * Multiply every element of a range of a buffer of doubles by the same factor.
+     */
+    static void scale (ByteBuffer buffer, int from, int to, double factor) {
+        for (int i = from; i < to; i++) {
+            int offset = i * Double.BYTES;
+            double current;
+            do {
+                current = (double)BUFFER_DOUBLES.get(buffer, offset);
+            } while (!BUFFER_DOUBLES.weakCompareAndSet(buffer, offset, current, current * factor));
+        }
+    }
+
+}
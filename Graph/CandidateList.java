@@ -0,0 +1,127 @@
+package Graph;
+
+/**
+ * Holds the nearest neighbours of every Vertex in a Graph.
+ * <br />
+ * Ants restricted to a CandidateList only weigh up a handful of nearby
+ * Vertices at each step instead of every Vertex in the Graph. The
+ * neighbours of Vertex i are stored at [i * size, (i + 1) * size),
+ * ordered from nearest to furthest.
+ */
+public class CandidateList {
+
+    private int size;
+    private int[] neighbours;
+
+    /**
+     * Construct the CandidateList by finding the nearest neighbours of every Vertex.
+     * @param matrix    The Matrix holding the distances between the Vertices
+     * @param size      The number of neighbours to keep for every Vertex
+     */
+    public CandidateList (Matrix matrix, int size) {
+        this(matrix::getDistance, matrix.size(), size);
+    }
+
+    /**
+     * Construct the CandidateList by measuring the distance between every pair of Vertices.
+     * @param metric    The Metric measuring the distances between the Vertices
+     * @param vertices  The number of Vertices
+     * @param size      The number of neighbours to keep for every Vertex
+     */
+    public CandidateList (Metric metric, int vertices, int size) {
+        this(vertices, size);
+
+        double[] distances = new double[this.size];
+
+        for (int i = 0; i < vertices; i++) {
+            int offset = i * this.size;
+            int found = 0;
+
+            // Insertion sort each Vertex into the neighbours found so far.
+            for (int j = 0; j < vertices; j++) {
+                if (i == j) continue;
+                double distance = metric.distance(i, j);
+
+                if (found == this.size && distance >= distances[found - 1]) continue;
+
+                int k = found == this.size ? found - 1 : found++;
+                while (k > 0 && distances[k - 1] > distance) {
+                    distances[k] = distances[k - 1];
+                    neighbours[offset + k] = neighbours[offset + k - 1];
+                    k--;
+                }
+                distances[k] = distance;
+                neighbours[offset + k] = j;
+            }
+        }
+    }
+
+    /**
+     * Construct the CandidateList from a spatial index, which only measures the
+     * distances to nearby Vertices. Twice as many neighbours as needed are taken
+     * from the index by straight line distance, then ranked by the Metric, so
+     * Metrics that differ a little from the straight line still get their own
+     * nearest neighbours.
+     * @param tree      The KdTree over the coordinates of the Vertices
+     * @param metric    The Metric measuring the distances between the Vertices
+     * @param size      The number of neighbours to keep for every Vertex
+     */
+    public CandidateList (KdTree tree, Metric metric, int size) {
+        this(tree.size(), size);
+
+        int vertices = tree.size();
+        int wanted = Math.min(2 * this.size, vertices - 1);
+        int[] nearby = new int[wanted];
+        double[] distances = new double[wanted];
+
+        for (int i = 0; i < vertices; i++) {
+            int found = tree.nearest(i, nearby, distances);
+            for (int k = 0; k < found; k++) {
+                distances[k] = metric.distance(i, nearby[k]);
+            }
+
+            // Keep the nearest by the Metric, sorting by insertion since there are only a few.
+            for (int k = 1; k < found; k++) {
+                int neighbour = nearby[k];
+                double distance = distances[k];
+                int m = k;
+                while (m > 0 && distances[m - 1] > distance) {
+                    distances[m] = distances[m - 1];
+                    nearby[m] = nearby[m - 1];
+                    m--;
+                }
+                distances[m] = distance;
+                nearby[m] = neighbour;
+            }
+            System.arraycopy(nearby, 0, neighbours, i * this.size, this.size);
+        }
+    }
+
+    private CandidateList (int vertices, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("A CandidateList needs at least one neighbour.");
+        }
+
+        this.size = Math.min(size, vertices - 1);
+        this.neighbours = new int[vertices * this.size];
+    }
+
+    /**
+     * Get the number of neighbours kept for every Vertex.
+     * @return          The quantity of neighbours per Vertex
+     */
+    public int size () {
+        return size;
+    }
+
+    /**
+     * Get one of the nearest neighbours of a Vertex.
+     * @param vertex    The index of the Vertex
+     * @param rank      The position of the neighbour, 0 being the nearest
+     * @return          The index of the neighbour
+     */
+    public int get (int vertex, int rank) {
+        return neighbours[vertex * size + rank];
+    }
+
+}
@@ -0,0 +1,165 @@
+package Graph;
+
+/**
+ * Caches the desirability of travelling along each Edge of a Graph, which is
+ * the pheromone to the power of alpha multiplied by the inverse distance to the
+ * power of beta.
+ * <br />
+ * The inverse distances only depend on the data set, so they are raised to the
+ * power of beta once. The products only change when the pheromones change, so
+ * they are recomputed once per generation by calling update() rather than on
+ * every step of every ant.
+ * <br />
+ * Without a CandidateList an entry is kept for every pair of Vertices. With a
+ * CandidateList only the Edges to the nearest neighbours are cached, laid out
+ * in the same order as the CandidateList, and any other Edge is computed on
+ * demand.
+ */
+public class ChoiceInfo {
+
+    private Matrix matrix;
+    private CandidateList candidates;
+    private int alpha, beta;
+    private int size, width;
+    private double[] heuristic;
+    private double[] choice;
+
+    /**
+     * Construct the ChoiceInfo and compute the initial desirabilities.
+     * @param matrix        The Matrix holding the distances and pheromones
+     * @param candidates    The nearest neighbours to cache, or null to cache every Edge
+     * @param alpha         The impact of pheromones on decision making
+     * @param beta          The impact of distance on decision making
+     */
+    public ChoiceInfo (Matrix matrix, CandidateList candidates, int alpha, int beta) {
+        this.matrix = matrix;
+        this.candidates = candidates;
+        this.alpha = alpha;
+        this.beta = beta;
+        this.size = matrix.size();
+        this.width = candidates == null ? size : candidates.size();
+        if ((long)size * width > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many Edges (" + (long)size * width
+                    + ") to cache their desirability, build a CandidateList first.");
+        }
+        this.heuristic = new double[size * width];
+        this.choice = new double[size * width];
+
+        for (int i = 0; i < size; i++) {
+            for (int k = 0; k < width; k++) {
+                int j = neighbour(i, k);
+                heuristic[i * width + k] = i == j ? 0.0 : heuristic(i, j);
+            }
+        }
+
+        update();
+    }
+
+    /**
+     * Recompute the cached desirabilities from the current pheromones. When the
+     * Matrix keeps its pheromones in the same layout, the Kernels run straight
+     * over both arrays.
+     */
+    public void update () {
+        if (matrix instanceof FlatPheromones && ((FlatPheromones)matrix).isLaidOutBy(candidates)) {
+            Kernels.get().choice(((FlatPheromones)matrix).pheromones(), heuristic, choice, 0, choice.length, alpha);
+            return;
+        }
+
+        for (int i = 0; i < size; i++) {
+            for (int k = 0; k < width; k++) {
+                int j = neighbour(i, k);
+                if (i == j) continue;
+                int index = i * width + k;
+                choice[index] = power(matrix.getPheromone(i, j), alpha) * heuristic[index];
+            }
+        }
+    }
+
+    /**
+     * Recompute the cached desirability of a single Edge, for when its
+     * pheromone changes in between calls to update().
+     * @param from      The index of the Vertex the Edge leaves
+     * @param to        The index of the Vertex the Edge enters
+     */
+    public void update (int from, int to) {
+        int k = rank(from, to);
+        if (k != -1) {
+            int index = from * width + k;
+            choice[index] = power(matrix.getPheromone(from, to), alpha) * heuristic[index];
+        }
+    }
+
+    /**
+     * Get the desirability of the Edge between two Vertices.
+     * @param from      The index of the Vertex the Edge leaves
+     * @param to        The index of the Vertex the Edge enters
+     * @return          The desirability of the Edge
+     */
+    public double get (int from, int to) {
+        if (candidates == null) {
+            return choice[from * width + to];
+        }
+        return power(matrix.getPheromone(from, to), alpha) * heuristic(from, to);
+    }
+
+    /**
+     * Get the desirability of the Edge to one of the nearest neighbours of a Vertex.
+     * Only valid when the ChoiceInfo was built with a CandidateList.
+     * @param from      The index of the Vertex the Edge leaves
+     * @param rank      The position of the neighbour in the CandidateList
+     * @return          The desirability of the Edge
+     */
+    public double getCandidate (int from, int rank) {
+        return choice[from * width + rank];
+    }
+
+    /**
+     * Get the inverse distance between two Vertices to the power of beta.
+     * A small constant is added to the distance so that distinct Vertices
+     * at the same location do not become infinitely desirable.
+     */
+    private double heuristic (int from, int to) {
+        return power(1.0 / (matrix.getDistance(from, to) + 0.1), beta);
+    }
+
+    private int neighbour (int vertex, int k) {
+        return candidates == null ? k : candidates.get(vertex, k);
+    }
+
+    private int rank (int from, int to) {
+        if (candidates == null) {
+            return to;
+        }
+        for (int k = 0; k < width; k++) {
+            if (candidates.get(from, k) == to) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Raise a number to a whole power by repeated squaring, which is much
+     * cheaper than Math.pow for the small exponents used by alpha and beta.
+     * @param base      The number to raise
+     * @param exponent  The power to raise it to
+     * @return          The base to the power of the exponent
+     */
+    public static double power (double base, int exponent) {
+        if (exponent < 0) {
+            return 1.0 / power(base, -exponent);
+        }
+
+        double result = 1.0;
+        while (exponent != 0) {
+            if ((exponent & 1) != 0) {
+                result *= base;
+            }
+            base *= base;
+            exponent >>>= 1;
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,129 @@
+package Graph;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A Matrix that stores the distances and pheromones in flat primitive arrays.
+ * <br />
+ * The entry for the directed Edge (from, to) lives at index from * size + to.
+ * Distances are computed once on construction so that they never have to be
+ * recomputed while the ants are travelling.
+ */
+public class DenseMatrix implements Matrix, FlatPheromones {
+
+    private int size;
+    private double[] distances;
+    private double[] pheromones;
+
+    /**
+     * Construct the DenseMatrix by measuring the distance between every pair of Vertices.
+     * @param size      The number of Vertices
+     * @param metric    The Metric used to measure the distances
+     */
+    public DenseMatrix (int size, Metric metric) {
+        this.size = size;
+        distances = new double[entries(size)];
+        pheromones = new double[entries(size)];
+
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                distances[i * size + j] = metric.distance(i, j);
+                pheromones[i * size + j] = Edge.INITIAL_PHEROMONE;
+            }
+        }
+    }
+
+    /**
+     * Get the number of entries in a Matrix that keeps both directions of every Edge.
+     * @param size      The number of Vertices
+     * @return          The number of directed Edges between them, including the diagonal
+     */
+    static int entries (int size) {
+        long entries = (long)size * size;
+        if (entries > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many Vertices (" + size
+                    + ") to keep every directed Edge in a single array, use SPARSE or OFF_HEAP storage instead.");
+        }
+        return (int)entries;
+    }
+
+    @Override
+    public int size () {
+        return size;
+    }
+
+    @Override
+    public double getDistance (int from, int to) {
+        return distances[from * size + to];
+    }
+
+    @Override
+    public double getPheromone (int from, int to) {
+        return pheromones[from * size + to];
+    }
+
+    @Override
+    public void setPheromone (int from, int to, double pheromone) {
+        pheromones[from * size + to] = pheromone;
+    }
+
+    @Override
+    public void deposit (int from, int to, double amount) {
+        pheromones[from * size + to] += amount;
+    }
+
+    @Override
+    public void evaporate (double factor) {
+        // The Kernels scale several pheromones at a time when the Vector API is available.
+        Kernels.get().scale(pheromones, 0, pheromones.length, factor);
+    }
+
+    @Override
+    public void depositConcurrently (int from, int to, double amount) {
+        Atomics.add(pheromones, from * size + to, amount);
+    }
+
+    @Override
+    public void evaporateConcurrently (double factor) {
+        Atomics.scale(pheromones, 0, pheromones.length, factor);
+    }
+
+    @Override
+    public void fill (double pheromone) {
+        Arrays.fill(pheromones, pheromone);
+    }
+
+    @Override
+    public void clamp (double min, double max) {
+        Kernels.get().clamp(pheromones, 0, pheromones.length, min, max);
+    }
+
+    @Override
+    public void smooth (double target, double fraction) {
+        Kernels.get().smooth(pheromones, 0, pheromones.length, target, fraction);
+    }
+
+    @Override
+    public Snapshot snapshot () {
+        double[] copy = pheromones.clone();
+        return out -> Snapshots.write(out, copy);
+    }
+
+    @Override
+    public void restore (DataInput in) throws IOException {
+        Snapshots.read(in, pheromones);
+    }
+
+    @Override
+    public double[] pheromones () {
+        return pheromones;
+    }
+
+    @Override
+    public boolean isLaidOutBy (CandidateList candidates) {
+        return candidates == null;
+    }
+
+}
@@ -1,10 +1,28 @@
 package Graph;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
 /**
  * A representation of a Graph Edge.
  */
 public class Edge extends Node {
 
+    /**
+     * The pheromone every Edge starts with.
+     */
+    public static final double INITIAL_PHEROMONE = 0.01;
+
+    private static final VarHandle PHEROMONE;
+
+    static {
+        try {
+            PHEROMONE = MethodHandles.lookup().findVarHandle(Edge.class, "pheromone", double.class);
+        } catch (ReflectiveOperationException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
     private double pheromone;
 
     /**
@@ -15,7 +33,7 @@ public class Edge extends Node {
      */
     public Edge (String name, int x, int y) {
         super(name, x, y);
-        pheromone = 0.01;
+        pheromone = INITIAL_PHEROMONE;
     }
 
     public void setPheromone (double pheromone) {
@@ -26,6 +44,30 @@ public class Edge extends Node {
         return pheromone;
     }
 
+    /**
+     * Adds pheromone with a compare-and-set, so that no deposit or evaporation
+     * made on another thread at the same time is lost.
+     * @param amount    The amount of pheromone to add.
+     */
+    void addPheromone (double amount) {
+        double current;
+        do {
+            current = pheromone;
+        } while (!PHEROMONE.weakCompareAndSet(this, current, current + amount));
+    }
+
+    /**
+     * Multiplies the pheromone with a compare-and-set, so that no deposit made
+     * on another thread at the same time is lost.
+     * @param factor    The fraction of pheromone that remains.
+     */
+    void scalePheromone (double factor) {
+        double current;
+        do {
+            current = pheromone;
+        } while (!PHEROMONE.weakCompareAndSet(this, current, current * factor));
+    }
+
     @Override
     public String toString () {
         return "Edge{" +
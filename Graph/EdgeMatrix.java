@@ -0,0 +1,75 @@
+package Graph;
+
+/**
+ * A Matrix view over the Edge objects stored in each Vertex of a Graph.
+ * <br />
+ * Every lookup goes through the hashMap of the Vertex, and distances are
+ * remeasured by the Metric of the Graph each time. This is the original
+ * representation of the Graph and is kept for small data sets.
+ */
+public class EdgeMatrix implements Matrix {
+
+    private Graph graph;
+
+    /**
+     * Construct the EdgeMatrix.
+     * @param graph     The Graph whose Edges will be read and written
+     */
+    public EdgeMatrix (Graph graph) {
+        this.graph = graph;
+    }
+
+    @Override
+    public int size () {
+        return graph.getTotalVertices();
+    }
+
+    @Override
+    public double getDistance (int from, int to) {
+        return graph.getMetric().distance(from, to);
+    }
+
+    @Override
+    public double getPheromone (int from, int to) {
+        return getEdge(from, to).getPheromone();
+    }
+
+    @Override
+    public void setPheromone (int from, int to, double pheromone) {
+        getEdge(from, to).setPheromone(pheromone);
+    }
+
+    @Override
+    public void deposit (int from, int to, double amount) {
+        Edge e = getEdge(from, to);
+        e.setPheromone(e.getPheromone() + amount);
+    }
+
+    @Override
+    public void evaporate (double factor) {
+        for (Vertex v : graph) {
+            for (Edge e : v) {
+                e.setPheromone(factor*e.getPheromone());
+            }
+        }
+    }
+
+    @Override
+    public void depositConcurrently (int from, int to, double amount) {
+        getEdge(from, to).addPheromone(amount);
+    }
+
+    @Override
+    public void evaporateConcurrently (double factor) {
+        for (Vertex v : graph) {
+            for (Edge e : v) {
+                e.scalePheromone(factor);
+            }
+        }
+    }
+
+    private Edge getEdge (int from, int to) {
+        return graph.getVertex(from).getEdge(graph.getVertex(to));
+    }
+
+}
@@ -0,0 +1,188 @@
+package Graph;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A TriangularMatrix that stores the pheromone of each undirected Edge as a
+ * 16-bit unsigned fixed-point number, sharing a single unit between every Edge.
+ * <br />
+ * The pheromone on an Edge is its code multiplied by the unit, so evaporation
+ * only has to shrink the unit and never touches the codes. Deposits add to the
+ * codes, so before a round of deposits reserve() halves every code and doubles
+ * the unit as often as it takes for the deposits to fit. The codes start at a
+ * quarter of their range, and the smallest pheromone that is kept is the
+ * largest divided by 65535; less than that reads as none, except that clamp()
+ * never rounds a positive bound down to nothing.
+ */
+public class FixedPointMatrix extends TriangularMatrix {
+
+    private static final int MAX_CODE = 0xFFFF;
+    private static final int INITIAL_CODE = 1 << 14;
+
+    private char[] codes;
+    private double unit;
+    private int maxCode;
+
+    /**
+     * Construct the FixedPointMatrix by measuring the distance between every pair of Vertices.
+     * @param size      The number of Vertices
+     * @param metric    The Metric used to measure the distances
+     */
+    public FixedPointMatrix (int size, Metric metric) {
+        super(size, metric);
+        codes = new char[entries(size)];
+        fill(Edge.INITIAL_PHEROMONE);
+    }
+
+    @Override
+    public double getPheromone (int from, int to) {
+        return from == to ? 0 : codes[index(from, to)] * unit;
+    }
+
+    @Override
+    public void setPheromone (int from, int to, double pheromone) {
+        if (from != to) {
+            fit(pheromone);
+            int code = encode(pheromone);
+            codes[index(from, to)] = (char)code;
+            maxCode = Math.max(maxCode, code);
+        }
+    }
+
+    /**
+     * Add pheromone to an Edge, saturating at the largest code in case
+     * reserve() was not called for the amount.
+     */
+    @Override
+    public void deposit (int from, int to, double amount) {
+        if (from != to) {
+            int index = index(from, to);
+            codes[index] = (char)Math.min(MAX_CODE, codes[index] + encode(amount));
+        }
+    }
+
+    /**
+     * Add pheromone to an Edge under the lock of the Matrix, rescaling the codes
+     * as soon as it does not fit, since reserve() cannot know the amounts ahead
+     * of deposits made at any time. The lock is only held for a few instructions,
+     * but the deposits of every ant still take it one at a time. Evaporating
+     * under the same lock only shrinks the unit, so it never holds up a deposit
+     * for a pass over the codes.
+     */
+    @Override
+    public synchronized void depositConcurrently (int from, int to, double amount) {
+        if (from != to) {
+            int index = index(from, to);
+            fit(codes[index] * unit + amount);
+            int code = Math.min(MAX_CODE, codes[index] + encode(amount));
+            codes[index] = (char)code;
+            maxCode = Math.max(maxCode, code);
+        }
+    }
+
+    @Override
+    public void evaporate (double factor) {
+        unit *= factor;
+    }
+
+    @Override
+    public void reserve (double amount) {
+        fit(maxCode * unit + amount);
+        // Bound the codes the deposits may reach, without having to find them again.
+        maxCode = Math.min(MAX_CODE, maxCode + encode(amount));
+    }
+
+    @Override
+    public void fill (double pheromone) {
+        if (pheromone > 0) {
+            unit = pheromone / INITIAL_CODE;
+            Arrays.fill(codes, (char)INITIAL_CODE);
+            maxCode = INITIAL_CODE;
+        } else {
+            Arrays.fill(codes, (char)0);
+            maxCode = 0;
+        }
+    }
+
+    @Override
+    public void clamp (double min, double max) {
+        fit(min);
+        int lower = min > 0 ? Math.max(1, encode(min)) : 0;
+        int upper = Math.min(MAX_CODE, encode(max));
+        maxCode = 0;
+        for (int i = 0; i < codes.length; i++) {
+            int code = Math.max(lower, Math.min(upper, codes[i]));
+            codes[i] = (char)code;
+            maxCode = Math.max(maxCode, code);
+        }
+    }
+
+    @Override
+    public void smooth (double target, double fraction) {
+        fit(target);
+        maxCode = 0;
+        for (int i = 0; i < codes.length; i++) {
+            double pheromone = codes[i] * unit;
+            int code = encode(pheromone + fraction * (target - pheromone));
+            codes[i] = (char)code;
+            maxCode = Math.max(maxCode, code);
+        }
+    }
+
+    /**
+     * Copy the codes together with their unit, so the copy takes two bytes per Edge.
+     */
+    @Override
+    public Snapshot snapshot () {
+        char[] copy = codes.clone();
+        double unit = this.unit;
+        int maxCode = this.maxCode;
+        return out -> {
+            out.writeDouble(unit);
+            out.writeInt(maxCode);
+            Snapshots.write(out, copy);
+        };
+    }
+
+    @Override
+    public void restore (DataInput in) throws IOException {
+        double unit = in.readDouble();
+        int maxCode = in.readInt();
+        Snapshots.read(in, codes);
+        this.unit = unit;
+        this.maxCode = maxCode;
+    }
+
+    /**
+     * Round an amount of pheromone to the nearest code, without any bound.
+     */
+    private int encode (double pheromone) {
+        return (int)Math.min(Integer.MAX_VALUE, Math.round(pheromone / unit));
+    }
+
+    /**
+     * Coarsen the unit until an amount of pheromone has a code, halving every code each time.
+     * @param pheromone The amount of pheromone that must fit
+     */
+    private void fit (double pheromone) {
+        int shift = 0;
+        while (shift < 62 && pheromone / (unit * (1L << shift)) > MAX_CODE) {
+            shift++;
+        }
+        if (shift == 0) {
+            return;
+        }
+
+        long half = 1L << (shift - 1);
+        maxCode = 0;
+        for (int i = 0; i < codes.length; i++) {
+            int code = (int)((codes[i] + half) >> shift);
+            codes[i] = (char)code;
+            maxCode = Math.max(maxCode, code);
+        }
+        unit *= 1L << shift;
+    }
+
+}
@@ -0,0 +1,23 @@
+package Graph;
+
+/**
+ * Implemented by the Matrices that keep their pheromones in a single flat
+ * array, so that the ChoiceInfo can run its Kernels straight over the array
+ * when the two are laid out the same way.
+ */
+interface FlatPheromones {
+
+    /**
+     * Get the array of pheromones, without copying it.
+     * @return              The pheromones
+     */
+    double[] pheromones ();
+
+    /**
+     * Check whether the pheromones are laid out like a ChoiceInfo built with a CandidateList.
+     * @param candidates    The CandidateList of the ChoiceInfo, or null for every Edge
+     * @return              True if the pheromone of each Edge is at the same index as its desirability
+     */
+    boolean isLaidOutBy (CandidateList candidates);
+
+}
@@ -0,0 +1,94 @@
+package Graph;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A TriangularMatrix that stores the pheromone of each undirected Edge as a float.
+ * <br />
+ * Together with the triangle this takes a quarter of the bytes of a
+ * DenseMatrix for the pheromones, which is what bounds the evaporation and
+ * the choice info passes on large Graphs. A float keeps about seven
+ * significant digits, which is far finer than the ants can tell apart.
+ * Evaporation, clamping and smoothing stay in float arithmetic, so the
+ * Kernels process twice as many pheromones at a time as for a DenseMatrix.
+ */
+public class FloatMatrix extends TriangularMatrix {
+
+    private float[] pheromones;
+
+    /**
+     * Construct the FloatMatrix by measuring the distance between every pair of Vertices.
+     * @param size      The number of Vertices
+     * @param metric    The Metric used to measure the distances
+     */
+    public FloatMatrix (int size, Metric metric) {
+        super(size, metric);
+        pheromones = new float[entries(size)];
+        Arrays.fill(pheromones, (float)Edge.INITIAL_PHEROMONE);
+    }
+
+    @Override
+    public double getPheromone (int from, int to) {
+        return from == to ? 0 : pheromones[index(from, to)];
+    }
+
+    @Override
+    public void setPheromone (int from, int to, double pheromone) {
+        if (from != to) {
+            pheromones[index(from, to)] = (float)pheromone;
+        }
+    }
+
+    @Override
+    public void deposit (int from, int to, double amount) {
+        if (from != to) {
+            pheromones[index(from, to)] += (float)amount;
+        }
+    }
+
+    @Override
+    public void evaporate (double factor) {
+        Kernels.get().scale(pheromones, 0, pheromones.length, (float)factor);
+    }
+
+    @Override
+    public void depositConcurrently (int from, int to, double amount) {
+        if (from != to) {
+            Atomics.add(pheromones, index(from, to), (float)amount);
+        }
+    }
+
+    @Override
+    public void evaporateConcurrently (double factor) {
+        Atomics.scale(pheromones, 0, pheromones.length, (float)factor);
+    }
+
+    @Override
+    public void fill (double pheromone) {
+        Arrays.fill(pheromones, (float)pheromone);
+    }
+
+    @Override
+    public void clamp (double min, double max) {
+        Kernels.get().clamp(pheromones, 0, pheromones.length, (float)min, (float)max);
+    }
+
+    @Override
+    public void smooth (double target, double fraction) {
+        Kernels.get().smooth(pheromones, 0, pheromones.length, (float)target, (float)fraction);
+    }
+
+    @Override
+    public Snapshot snapshot () {
+        float[] copy = pheromones.clone();
+        return out -> Snapshots.write(out, copy);
+    }
+
+    @Override
+    public void restore (DataInput in) throws IOException {
+        Snapshots.read(in, pheromones);
+    }
+
+}
@@ -2,16 +2,149 @@ package Graph;
 
 import Ants.Ant;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * A representation of a Graph, which contains Vertices, which contain Edges.
  */
 public class Graph implements Iterable<Vertex> {
 
+    /**
+     * The ways in which the distances and pheromones of a Graph can be stored.
+     */
+    public enum Storage {
+
+        /**
+         * Every Vertex holds an Edge object for each of its neighbours.
+         */
+        EDGES,
+
+        /**
+         * Distances and pheromones are held in flat arrays indexed by Vertex.
+         * No Edge objects need to be added to the Graph.
+         */
+        DENSE,
+
+        /**
+         * Pheromones are held in a flat array, while distances are read from
+         * the Metric on demand. Suited to Metrics backed by a precomputed
+         * table, such as a memory-mapped cache.
+         * No Edge objects need to be added to the Graph.
+         */
+        MAPPED,
+
+        /**
+         * Only the Edges to the nearest neighbours of each Vertex keep their
+         * own pheromone, and distances are read from the Metric on demand.
+         * The neighbours are found with a KdTree when the Graph has coordinates.
+         * Suited to instances too large for a Matrix of every pair of Vertices.
+         * No Edge objects need to be added to the Graph.
+         */
+        SPARSE,
+
+        /**
+         * Each undirected Edge is held once, in the upper triangle of a Matrix,
+         * with its pheromone at a reduced Precision and its distance as an int
+         * when the Metric is integral. Suited to symmetric instances whose dense
+         * Matrix would be bound by the memory bandwidth.
+         * No Edge objects need to be added to the Graph.
+         */
+        COMPACT,
+
+        /**
+         * Pheromones are held outside the Java heap, in blocks of whole rows
+         * of direct or memory-mapped buffers, while distances are read from
+         * the Metric on demand. Suited to instances whose pheromones are too
+         * many for an array or for the heap, but which need every Edge.
+         * The ants are always restricted to the nearest neighbours, which are
+         * found as for SPARSE storage.
+         * No Edge objects need to be added to the Graph.
+         */
+        OFF_HEAP
+    }
+
+    /**
+     * How finely COMPACT storage keeps the pheromone on each Edge.
+     */
+    public enum Precision {
+
+        /**
+         * A 32-bit float for each Edge.
+         */
+        FLOAT,
+
+        /**
+         * A 16-bit fixed-point number for each Edge, scaled by a unit shared between every Edge.
+         */
+        FIXED16
+    }
+
+    /**
+     * The number of neighbours kept for each Vertex by SPARSE storage, unless
+     * buildCandidateList() is called with another number.
+     */
+    public static final int SPARSE_CANDIDATES = 15;
+
+    /**
+     * Choose how to store a Graph read from a file so that it fits in an amount
+     * of memory: every Edge densely, or compactly when given a Precision, while
+     * the Matrix and ChoiceInfo of every pair fit in arrays and in the memory,
+     * and only the Edges to the nearest neighbours otherwise.
+     * @param vertices  The number of Vertices
+     * @param precision The Precision of COMPACT storage, or null for DENSE storage
+     * @param memory    The most bytes the Graph may take
+     * @return          DENSE, COMPACT or SPARSE storage
+     */
+    public static Storage chooseStorage (long vertices, Precision precision, long memory) {
+        Storage storage = precision == null ? Storage.DENSE : Storage.COMPACT;
+        if (vertices * vertices > Integer.MAX_VALUE - 8 || estimateBytes(vertices, storage) > memory) {
+            return Storage.SPARSE;
+        }
+        return storage;
+    }
+
+    /**
+     * Estimate the bytes a Graph read from a file takes with the storages chooseStorage()
+     * picks from, when a SPARSE Graph keeps its SPARSE_CANDIDATES nearest neighbours.
+     * @param vertices  The number of Vertices
+     * @param storage   DENSE, COMPACT or SPARSE storage
+     * @return          The estimate in bytes
+     */
+    public static long estimateBytes (long vertices, Storage storage) {
+        return estimateBytes(vertices, storage, SPARSE_CANDIDATES);
+    }
+
+    /**
+     * Estimate the bytes a Graph read from a file takes with the storages chooseStorage() picks from.
+     * @param vertices      The number of Vertices
+     * @param storage       DENSE, COMPACT or SPARSE storage
+     * @param candidates    The number of nearest neighbours a SPARSE Graph keeps for each Vertex
+     * @return              The estimate in bytes
+     */
+    public static long estimateBytes (long vertices, Storage storage, int candidates) {
+        switch (storage) {
+            case DENSE:
+                // The distances, pheromones and choice info of every pair.
+                return 32 * vertices * vertices;
+            case COMPACT:
+                // The 16 bytes of the choice info of every pair, and the triangle of distances and pheromones.
+                return 20 * vertices * vertices;
+            case SPARSE:
+                // The pheromone, choice info and index of each neighbour, and the KdTree that finds them.
+                return (28L * candidates + 64) * vertices;
+            default:
+                throw new IllegalArgumentException("No estimate for " + storage + " storage.");
+        }
+    }
+
     /**
      * Used a HashMap instead of a HashSet because a HashSet
      * cannot return a Vertex. It is necessary to be able to
@@ -27,14 +160,31 @@ public class Graph implements Iterable<Vertex> {
     private int totalEdges;
     private int alpha, beta;
     private double evaporationRate;
+    private Storage storage;
+    private Precision precision = Precision.FLOAT;
+    private Path pheromoneFile;
+    private Metric metric;
+    private Matrix matrix;
+    private CandidateList candidates;
+    private ChoiceInfo choiceInfo;
+    private double[] x, y;
 
     /**
-     * Constructs an empty graph.
+     * Constructs an empty graph that stores its pheromones in Edge objects.
      */
     public Graph (double evaporationRate, int alpha, int beta) {
+        this(evaporationRate, alpha, beta, Storage.EDGES);
+    }
+
+    /**
+     * Constructs an empty graph.
+     * @param storage   How the distances and pheromones will be stored.
+     */
+    public Graph (double evaporationRate, int alpha, int beta, Storage storage) {
         this.alpha = alpha;
         this.beta = beta;
         this.evaporationRate = evaporationRate;
+        this.storage = storage;
         clear();
     }
 
@@ -46,12 +196,48 @@ public class Graph implements Iterable<Vertex> {
         return beta;
     }
 
+    public double getEvaporationRate () {
+        return evaporationRate;
+    }
+
+    public Storage getStorage () {
+        return storage;
+    }
+
+    public Precision getPrecision () {
+        return precision;
+    }
+
+    /**
+     * Sets how finely COMPACT storage keeps the pheromones, which is FLOAT
+     * unless set. Has no effect on the other kinds of storage.
+     * @param precision The Precision of each pheromone.
+     */
+    public void setPrecision (Precision precision) {
+        this.precision = precision;
+        matrix = null;
+        choiceInfo = null;
+    }
+
+    /**
+     * Maps the pheromones of OFF_HEAP storage to a file rather than keeping
+     * them in direct memory, which is limited to the size of the heap unless
+     * -XX:MaxDirectMemorySize says otherwise. Has no effect on the other kinds
+     * of storage.
+     * @param file      The file to overwrite with the pheromones, or null for direct memory.
+     */
+    public void setPheromoneFile (Path file) {
+        this.pheromoneFile = file;
+        matrix = null;
+        choiceInfo = null;
+    }
+
     /**
      * Gets the total number of Vertices in the Graph.
      * @return          The quantity of Vertices.
      */
     public int getTotalVertices () {
-        return hashMap.size();
+        return list.size();
     }
 
     /**
@@ -70,7 +256,7 @@ public class Graph implements Iterable<Vertex> {
      * @return          True if no Vertices exist within the Graph.
      */
     public boolean isEmpty () {
-        return hashMap.isEmpty();
+        return list.isEmpty();
     }
 
     /**
@@ -80,6 +266,12 @@ public class Graph implements Iterable<Vertex> {
         hashMap = new HashMap<>();
         list = new ArrayList<>();
         totalEdges = 0;
+        metric = (from, to) -> getDistance(getVertex(from), getVertex(to));
+        x = null;
+        y = null;
+        matrix = null;
+        candidates = null;
+        choiceInfo = null;
     }
 
     /**
@@ -87,14 +279,164 @@ public class Graph implements Iterable<Vertex> {
      * @param vertex    The Vertex to add to the Graph.
      */
     public void addVertex (Vertex vertex) {
+        vertex.setIndex(list.size());
         hashMap.put(vertex.hashCode(), vertex);
         list.add(vertex);
+        matrix = null;
+        candidates = null;
+        choiceInfo = null;
     }
 
     public Vertex getVertex (Node node) {
         return hashMap.get(node.hashCode());
     }
 
+    /**
+     * Gets a Vertex by its position in the Graph.
+     * @param index     The index of the Vertex.
+     * @return          The Vertex at that index.
+     */
+    public Vertex getVertex (int index) {
+        return list.get(index);
+    }
+
+    /**
+     * Gets the Metric used to measure the distances between Vertices.
+     * @return          The Metric of the Graph.
+     */
+    public Metric getMetric () {
+        return metric;
+    }
+
+    /**
+     * Replaces the straight line distance between Vertices with another Metric,
+     * such as the one defined by a data set.
+     * @param metric    The Metric to measure distances with.
+     */
+    public void setMetric (Metric metric) {
+        this.metric = metric;
+        matrix = null;
+        candidates = null;
+        choiceInfo = null;
+    }
+
+    /**
+     * Gives the exact coordinates of the Vertices, which the nearest neighbours
+     * of SPARSE storage are found from. Without them every pair of Vertices is
+     * measured instead, which is only practical for small Graphs.
+     * @param x         The x coordinate of each Vertex, by index.
+     * @param y         The y coordinate of each Vertex, by index.
+     */
+    public void setCoordinates (double[] x, double[] y) {
+        if (x.length != getTotalVertices() || y.length != getTotalVertices()) {
+            throw new IllegalArgumentException("Every Vertex needs both an x and a y coordinate.");
+        }
+        this.x = x;
+        this.y = y;
+        matrix = null;
+        candidates = null;
+        choiceInfo = null;
+    }
+
+    /**
+     * Gets the Matrix holding the distances and pheromones of the Graph.
+     * The Matrix is created from the Vertices the first time it is requested,
+     * so it should only be requested once every Vertex has been added.
+     * @return          The Matrix of the Graph.
+     */
+    public Matrix getMatrix () {
+        if (matrix == null) {
+            if (storage == Storage.DENSE) {
+                matrix = new DenseMatrix(getTotalVertices(), metric);
+            } else if (storage == Storage.MAPPED) {
+                matrix = new MetricMatrix(getTotalVertices(), metric);
+            } else if (storage == Storage.SPARSE) {
+                if (candidates == null) {
+                    candidates = nearestNeighbours(SPARSE_CANDIDATES);
+                }
+                matrix = new SparseMatrix(candidates, metric, getTotalVertices());
+            } else if (storage == Storage.COMPACT) {
+                matrix = precision == Precision.FIXED16
+                        ? new FixedPointMatrix(getTotalVertices(), metric)
+                        : new FloatMatrix(getTotalVertices(), metric);
+            } else if (storage == Storage.OFF_HEAP) {
+                if (candidates == null) {
+                    candidates = nearestNeighbours(SPARSE_CANDIDATES);
+                }
+                matrix = new OffHeapMatrix(getTotalVertices(), metric, pheromoneFile);
+            } else {
+                matrix = new EdgeMatrix(this);
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Restricts the ants to the nearest neighbours of each Vertex by building
+     * a CandidateList. Should only be called once every Vertex has been added.
+     * @param size      The number of neighbours to keep for each Vertex.
+     */
+    public void buildCandidateList (int size) {
+        if (storage == Storage.SPARSE) {
+            // The pheromones are laid out by the neighbours, so they start over.
+            candidates = nearestNeighbours(size);
+            matrix = null;
+        } else if (storage == Storage.OFF_HEAP) {
+            // Reading every row of a Matrix this large would take far longer.
+            candidates = nearestNeighbours(size);
+        } else {
+            candidates = new CandidateList(getMatrix(), size);
+        }
+        choiceInfo = null;
+    }
+
+    /**
+     * Finds the nearest neighbours of each Vertex without a Matrix, through a
+     * KdTree if the Graph has coordinates.
+     */
+    private CandidateList nearestNeighbours (int size) {
+        if (x == null) {
+            return new CandidateList(metric, getTotalVertices(), size);
+        }
+        return new CandidateList(new KdTree(x, y), metric, size);
+    }
+
+    /**
+     * Gets the nearest neighbours of each Vertex.
+     * @return          The CandidateList, or null if the ants are unrestricted.
+     *                  SPARSE and OFF_HEAP storage always have one.
+     */
+    public CandidateList getCandidateList () {
+        if (candidates == null && (storage == Storage.SPARSE || storage == Storage.OFF_HEAP)) {
+            getMatrix();
+        }
+        return candidates;
+    }
+
+    /**
+     * Gets the cached desirability of every Edge the ants may choose from.
+     * The ChoiceInfo is created the first time it is requested, so it should
+     * only be requested once the Graph and its CandidateList are complete.
+     * @return          The ChoiceInfo of the Graph.
+     */
+    public ChoiceInfo getChoiceInfo () {
+        if (choiceInfo == null) {
+            choiceInfo = new ChoiceInfo(getMatrix(), candidates, alpha, beta);
+        }
+        return choiceInfo;
+    }
+
+    /**
+     * Recomputes the cached desirabilities from the current pheromones.
+     * Should be called once all the ants of a generation have deposited
+     * their pheromones.
+     */
+    public void updateChoiceInfo () {
+        if (choiceInfo != null) {
+            choiceInfo.update();
+        }
+    }
+
     /**
      * Adds a Node to a Vertex.
      * If the Node is an Edge it is added directly.
@@ -115,41 +457,189 @@ public class Graph implements Iterable<Vertex> {
         return nodes;
     }
 
+    /**
+     * Evaporates the pheromones on every Edge and deposits pheromones along the
+     * tour of an ant. The ChoiceInfo is not refreshed; call updateChoiceInfo()
+     * once every ant has been accounted for.
+     * @param ant       The ant with a completed tour.
+     */
     public void updatePheromone(Ant ant) {
+        getMatrix().evaporate(1 - evaporationRate);
+        deposit(ant);
+    }
 
-        double eval = ant.eval();
+    /**
+     * Updates the pheromones for a whole generation of ants at once. The
+     * pheromones on every Edge are evaporated a single time, then each ant
+     * deposits pheromones along its tour, and finally the ChoiceInfo is refreshed.
+     * @param ants      The ants with completed tours.
+     */
+    public void updatePheromones (Ant[] ants) {
+        updatePheromones(ants, null, 1);
+    }
 
-        double probability = (1 - evaporationRate);
+    /**
+     * Updates the pheromones for a whole generation of ants at once, with the
+     * deposits split over several threads. Each thread owns a band of rows of the
+     * Matrix and deposits only into those, going through the ants in order, so no
+     * locks are needed and every entry receives its deposits in the same order
+     * as on a single thread. The result is identical regardless of the threads.
+     * @param ants      The ants with completed tours.
+     * @param executor  The executor to deposit on, or null to deposit on this thread.
+     * @param threads   The number of bands to split the rows into.
+     */
+    public void updatePheromones (Ant[] ants, ExecutorService executor, int threads) {
+        getMatrix().evaporate(1 - evaporationRate);
+
+        double[] amounts = new double[ants.length];
+        double total = 0;
+        for (int i = 0; i < ants.length; i++) {
+            amounts[i] = 1.0/ants[i].eval();
+            total += amounts[i];
+        }
+        // Any rescaling happens once for the whole round, before any thread deposits,
+        // so a Matrix of limited range rounds the same way on any number of threads.
+        getMatrix().reserve(total);
+
+        int size = getTotalVertices();
+        if (executor == null || threads < 2) {
+            for (int i = 0; i < ants.length; i++) {
+                deposit(ants[i], amounts[i], 0, size);
+            }
+        } else {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            int band = (size + threads - 1) / threads;
+
+            for (int start = 0; start < size; start += band) {
+                int from = start;
+                int to = Math.min(size, start + band);
+                tasks.add(() -> {
+                    for (int i = 0; i < ants.length; i++) {
+                        deposit(ants[i], amounts[i], from, to);
+                    }
+                    return null;
+                });
+            }
 
-        Node[] edges = ant.getTour();
+            try {
+                for (Future<Void> future : executor.invokeAll(tasks)) {
+                    future.get();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while depositing pheromones.", ex);
+            } catch (ExecutionException ex) {
+                throw new IllegalStateException("Failed to deposit pheromones.", ex.getCause());
+            }
+        }
 
-        HashSet<Edge> hashSet = new HashSet<>();
+        updateChoiceInfo();
+    }
 
-        for (int i = 1; i < edges.length; i++) {
-            Edge e1 = getVertex(edges[i-1]).getEdge(edges[i]);
-            Edge e2 = getVertex(edges[i]).getEdge(edges[i-1]);
+    /**
+     * Evaporates the pheromones on every Edge once.
+     */
+    public void evaporate () {
+        getMatrix().evaporate(1 - evaporationRate);
+    }
 
-            // The pheromones.
-            double p1 = e1.getPheromone();
-            double p2 = e2.getPheromone();
+    /**
+     * Deposits pheromones along the tour of an ant in both directions, which
+     * is a single deposit on each Edge of a symmetric Matrix.
+     * The amount deposited is the inverse of the evaluation of the tour.
+     * @param ant       The ant with a completed tour.
+     */
+    public void deposit (Ant ant) {
+        Matrix matrix = getMatrix();
+        double amount = 1.0/ant.eval();
+        int cities = getTotalVertices();
+        boolean symmetric = matrix.isSymmetric();
+        matrix.reserve(amount);
+
+        for (int i = 1; i <= cities; i++) {
+            int from = ant.getCity(i-1);
+            int to = ant.getCity(i);
+            matrix.deposit(from, to, amount);
+            if (!symmetric) {
+                matrix.deposit(to, from, amount);
+            }
+        }
+    }
 
-            hashSet.add(e1);
-            hashSet.add(e2);
+    /**
+     * Evaporates the pheromones on every Edge once, while ants on other threads
+     * may be depositing with depositConcurrently(). No deposit is lost.
+     */
+    public void evaporateConcurrently () {
+        getMatrix().evaporateConcurrently(1 - evaporationRate);
+    }
 
-            e1.setPheromone(probability*p1 + 1.0/eval);
-            e2.setPheromone(probability*p2 + 1.0/eval);
+    /**
+     * Deposits pheromones along the tour of an ant in both directions, as deposit()
+     * does, while ants on other threads may be depositing too, or the pheromones
+     * evaporating. No deposit is lost, and most Matrices take no lock for it.
+     * @param ant       The ant with a completed tour.
+     */
+    public void depositConcurrently (Ant ant) {
+        Matrix matrix = getMatrix();
+        double amount = 1.0/ant.eval();
+        int cities = getTotalVertices();
+        boolean symmetric = matrix.isSymmetric();
+
+        for (int i = 1; i <= cities; i++) {
+            int from = ant.getCity(i-1);
+            int to = ant.getCity(i);
+            matrix.depositConcurrently(from, to, amount);
+            if (!symmetric) {
+                matrix.depositConcurrently(to, from, amount);
+            }
         }
+    }
 
-        // Evaporate the pheromones on all the rest of the edges.
-        for (Vertex v : this) {
-            for (Edge e : v) {
-                if (!hashSet.contains(e)) {
-                    double p = e.getPheromone();
-                    e.setPheromone(probability*p);
+    /**
+     * Deposits pheromones along the tour of an ant in both directions, but only into a band of rows.
+     * An Edge of a symmetric Matrix belongs to the row of the lower of its two Vertices.
+     * @param ant       The ant with a completed tour.
+     * @param amount    The amount to deposit on each Edge.
+     * @param first     The first row to deposit into, inclusive.
+     * @param last      The last row to deposit into, exclusive.
+     */
+    private void deposit (Ant ant, double amount, int first, int last) {
+        Matrix matrix = getMatrix();
+        int cities = getTotalVertices();
+
+        if (matrix.isSymmetric()) {
+            for (int i = 1; i <= cities; i++) {
+                int from = ant.getCity(i-1);
+                int to = ant.getCity(i);
+                int row = Math.min(from, to);
+                if (row >= first && row < last) {
+                    matrix.deposit(from, to, amount);
                 }
             }
+            return;
+        }
+
+        for (int i = 1; i <= cities; i++) {
+            int from = ant.getCity(i-1);
+            int to = ant.getCity(i);
+            if (from >= first && from < last) {
+                matrix.deposit(from, to, amount);
+            }
+            if (to >= first && to < last) {
+                matrix.deposit(to, from, amount);
+            }
         }
+    }
 
+    /**
+     * Gets the distance between two Vertices using the Matrix of the Graph.
+     * @param from      The index of the first Vertex.
+     * @param to        The index of the second Vertex.
+     * @return          The distance between the Vertices.
+     */
+    public double getDistance (int from, int to) {
+        return getMatrix().getDistance(from, to);
     }
 
     public static double getDistance (Node node1, Node node2) {
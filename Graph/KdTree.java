@@ -0,0 +1,175 @@
+package Graph;
+
+/**
+ * A 2-d tree over the coordinates of the Vertices of a Graph, for finding the
+ * nearest neighbours of every Vertex without measuring the distance between
+ * every pair.
+ * <br />
+ * The tree is implicit: the points are reordered so that the median of each
+ * range sits in its middle, with the smaller half before it and the larger half
+ * after it, alternating between x and y at each level. Building it takes
+ * O(n log n) time and no memory beyond the ordering, and each query visits
+ * O(log n + k) points on typical data sets.
+ */
+public class KdTree {
+
+    private double[] x, y;
+    private int[] order;
+
+    /**
+     * Construct the KdTree.
+     * @param x     The x coordinate of every point
+     * @param y     The y coordinate of every point
+     */
+    public KdTree (double[] x, double[] y) {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("Every point needs both an x and a y coordinate.");
+        }
+        this.x = x;
+        this.y = y;
+        this.order = new int[x.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        build(0, order.length, 0);
+    }
+
+    /**
+     * Get the number of points in the tree.
+     * @return      The quantity of points
+     */
+    public int size () {
+        return order.length;
+    }
+
+    /**
+     * Find the nearest points to one of the points in the tree, by straight line distance.
+     * @param point         The index of the point
+     * @param neighbours    Filled with the indices of the nearest other points, nearest first
+     * @param distances     Scratch space of the same length as neighbours
+     * @return              The number of neighbours found, which is less than
+     *                      requested only if the tree has too few points
+     */
+    public int nearest (int point, int[] neighbours, double[] distances) {
+        Search search = new Search(point, neighbours, distances);
+        search.visit(0, order.length, 0);
+        return search.found;
+    }
+
+    private double coordinate (int point, int axis) {
+        return axis == 0 ? x[point] : y[point];
+    }
+
+    /**
+     * Arrange the range so its median along the axis of this level is in the middle.
+     */
+    private void build (int low, int high, int axis) {
+        while (high - low > 1) {
+            int middle = (low + high) >>> 1;
+            select(low, high - 1, middle, axis);
+            build(middle + 1, high, axis ^ 1);
+            high = middle;
+            axis ^= 1;
+        }
+    }
+
+    /**
+     * Partially sort a range so the k-th point along an axis is in its sorted
+     * position, with no larger point before it and no smaller one after it.
+     */
+    private void select (int left, int right, int k, int axis) {
+        while (left < right) {
+            double pivot = coordinate(order[(left + right) >>> 1], axis);
+            int i = left, j = right;
+            while (i <= j) {
+                while (coordinate(order[i], axis) < pivot) i++;
+                while (coordinate(order[j], axis) > pivot) j--;
+                if (i <= j) {
+                    int swap = order[i];
+                    order[i++] = order[j];
+                    order[j--] = swap;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * The state of a single nearest neighbour query.
+     */
+    private class Search {
+
+        private int point;
+        private double px, py;
+        private int[] neighbours;
+        private double[] distances;
+        private int found;
+
+        Search (int point, int[] neighbours, double[] distances) {
+            this.point = point;
+            this.px = x[point];
+            this.py = y[point];
+            this.neighbours = neighbours;
+            this.distances = distances;
+        }
+
+        void visit (int low, int high, int axis) {
+            if (low >= high) {
+                return;
+            }
+            int middle = (low + high) >>> 1;
+            int candidate = order[middle];
+
+            if (candidate != point) {
+                double dx = x[candidate] - px;
+                double dy = y[candidate] - py;
+                offer(candidate, dx * dx + dy * dy);
+            }
+
+            double difference = (axis == 0 ? px : py) - coordinate(candidate, axis);
+            if (difference < 0) {
+                visit(low, middle, axis ^ 1);
+                if (difference * difference < worst()) {
+                    visit(middle + 1, high, axis ^ 1);
+                }
+            } else {
+                visit(middle + 1, high, axis ^ 1);
+                if (difference * difference < worst()) {
+                    visit(low, middle, axis ^ 1);
+                }
+            }
+        }
+
+        /**
+         * The squared distance a point must beat to be kept.
+         */
+        double worst () {
+            return found < neighbours.length ? Double.POSITIVE_INFINITY : distances[found - 1];
+        }
+
+        /**
+         * Insertion sort a point into the neighbours found so far.
+         */
+        void offer (int candidate, double distance) {
+            if (distance >= worst()) {
+                return;
+            }
+            int k = found < neighbours.length ? found++ : found - 1;
+            while (k > 0 && distances[k - 1] > distance) {
+                distances[k] = distances[k - 1];
+                neighbours[k] = neighbours[k - 1];
+                k--;
+            }
+            distances[k] = distance;
+            neighbours[k] = candidate;
+        }
+
+    }
+
+}
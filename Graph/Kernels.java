@@ -0,0 +1,161 @@
+package Graph;
+
+/**
+ * The element-wise arithmetic over flat arrays of pheromones that is repeated
+ * for every Edge on every generation: evaporation, clamping to the bounds of the
+ * Max-Min Ant System, smoothing, and recomputing the ChoiceInfo. The first three
+ * also come for the float pheromones of a FloatMatrix, done in float arithmetic.
+ * <br />
+ * This class does the arithmetic one element at a time. When the JVM was started
+ * with the incubating Vector API (--add-modules jdk.incubator.vector) and the
+ * VectorKernels were compiled in, get() returns those instead, which do the same
+ * arithmetic several elements at a time and give exactly the same results.
+ * Pass -Dkernels=scalar to the JVM to use this class regardless.
+ */
+public class Kernels {
+
+    /**
+     * Get the fastest Kernels the JVM supports.
+     * @return          The Kernels to use
+     */
+    public static Kernels get () {
+        return Selected.INSTANCE;
+    }
+
+    /**
+     * Holds the selected Kernels apart from this class, so that loading the
+     * VectorKernels, which extend it, does not select them before they are ready.
+     */
+    private static class Selected {
+        private static final Kernels INSTANCE = select();
+    }
+
+    private static Kernels select () {
+        if (!"scalar".equals(System.getProperty("kernels"))) {
+            try {
+                Kernels kernels = (Kernels)Class.forName("Graph.VectorKernels").getDeclaredConstructor().newInstance();
+                if (kernels.lanes() > 1) {
+                    return kernels;
+                }
+            } catch (ReflectiveOperationException | LinkageError ex) {
+                // The Vector API is not available, so fall back to scalar arithmetic.
+            }
+        }
+        return new Kernels();
+    }
+
+    Kernels () {
+    }
+
+    /**
+     * Get the number of elements processed at a time.
+     * @return          1 for scalar arithmetic
+     */
+    public int lanes () {
+        return 1;
+    }
+
+    @Override
+    public String toString () {
+        return lanes() == 1 ? "scalar" : "vector (" + lanes() + " lanes)";
+    }
+
+    /**
+     * Multiply a range of values by a factor, such as to evaporate pheromones.
+     * @param values    The values to scale
+     * @param from      The first index, inclusive
+     * @param to        The last index, exclusive
+     * @param factor    The factor to multiply by
+     */
+    public void scale (double[] values, int from, int to, double factor) {
+        for (int i = from; i < to; i++) {
+            values[i] *= factor;
+        }
+    }
+
+    /**
+     * Bound a range of values.
+     * @param values    The values to bound
+     * @param from      The first index, inclusive
+     * @param to        The last index, exclusive
+     * @param min       The lowest value allowed
+     * @param max       The highest value allowed
+     */
+    public void clamp (double[] values, int from, int to, double min, double max) {
+        for (int i = from; i < to; i++) {
+            values[i] = Math.max(min, Math.min(max, values[i]));
+        }
+    }
+
+    /**
+     * Move a range of values part of the way towards a target.
+     * @param values    The values to move
+     * @param from      The first index, inclusive
+     * @param to        The last index, exclusive
+     * @param target    The value to move towards
+     * @param fraction  How far to move, from 0 for not at all to 1 for all the way
+     */
+    public void smooth (double[] values, int from, int to, double target, double fraction) {
+        for (int i = from; i < to; i++) {
+            values[i] += fraction * (target - values[i]);
+        }
+    }
+
+    /**
+     * Multiply a range of float values by a factor, such as to evaporate pheromones.
+     * @param values    The values to scale
+     * @param from      The first index, inclusive
+     * @param to        The last index, exclusive
+     * @param factor    The factor to multiply by
+     */
+    public void scale (float[] values, int from, int to, float factor) {
+        for (int i = from; i < to; i++) {
+            values[i] *= factor;
+        }
+    }
+
+    /**
+     * Bound a range of float values.
+     * @param values    The values to bound
+     * @param from      The first index, inclusive
+     * @param to        The last index, exclusive
+     * @param min       The lowest value allowed
+     * @param max       The highest value allowed
+     */
+    public void clamp (float[] values, int from, int to, float min, float max) {
+        for (int i = from; i < to; i++) {
+            values[i] = Math.max(min, Math.min(max, values[i]));
+        }
+    }
+
+    /**
+     * Move a range of float values part of the way towards a target.
+     * @param values    The values to move
+     * @param from      The first index, inclusive
+     * @param to        The last index, exclusive
+     * @param target    The value to move towards
+     * @param fraction  How far to move, from 0 for not at all to 1 for all the way
+     */
+    public void smooth (float[] values, int from, int to, float target, float fraction) {
+        for (int i = from; i < to; i++) {
+            values[i] += fraction * (target - values[i]);
+        }
+    }
+
+    /**
+     * Compute the desirability of a range of Edges from their pheromones and
+     * their inverse distances already raised to the power of beta.
+     * @param pheromones    The pheromone on each Edge
+     * @param heuristic     The inverse distance of each Edge to the power of beta
+     * @param choice        Filled with the desirability of each Edge
+     * @param from          The first index, inclusive
+     * @param to            The last index, exclusive
+     * @param alpha         The power to raise the pheromones to
+     */
+    public void choice (double[] pheromones, double[] heuristic, double[] choice, int from, int to, int alpha) {
+        for (int i = from; i < to; i++) {
+            choice[i] = ChoiceInfo.power(pheromones[i], alpha) * heuristic[i];
+        }
+    }
+
+}
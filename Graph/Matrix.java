@@ -0,0 +1,190 @@
+package Graph;
+
+import java.io.DataInput;
+import java.io.IOException;
+
+/**
+ * Stores the distances and pheromones between every pair of Vertices in a Graph.
+ * <br />
+ * Vertices are addressed by their index within the Graph rather than by
+ * their coordinates, so implementations are free to lay the data out as
+ * flat primitive arrays.
+ */
+public interface Matrix {
+
+    /**
+     * Get the number of Vertices covered by the Matrix.
+     * @return          The quantity of Vertices.
+     */
+    int size ();
+
+    /**
+     * Get the distance between two Vertices.
+     * @param from      The index of the first Vertex
+     * @param to        The index of the second Vertex
+     * @return          The distance between the two Vertices
+     */
+    double getDistance (int from, int to);
+
+    /**
+     * Get the pheromone on the directed Edge between two Vertices.
+     * @param from      The index of the Vertex the Edge leaves
+     * @param to        The index of the Vertex the Edge enters
+     * @return          The pheromone on the Edge
+     */
+    double getPheromone (int from, int to);
+
+    /**
+     * Set the pheromone on the directed Edge between two Vertices.
+     * @param from      The index of the Vertex the Edge leaves
+     * @param to        The index of the Vertex the Edge enters
+     * @param pheromone The new pheromone on the Edge
+     */
+    void setPheromone (int from, int to, double pheromone);
+
+    /**
+     * Add pheromone to the directed Edge between two Vertices.
+     * @param from      The index of the Vertex the Edge leaves
+     * @param to        The index of the Vertex the Edge enters
+     * @param amount    The amount of pheromone to add
+     */
+    void deposit (int from, int to, double amount);
+
+    /**
+     * Multiply the pheromone on every Edge by the same factor.
+     * @param factor    The fraction of pheromone that remains on each Edge
+     */
+    void evaporate (double factor);
+
+    /**
+     * Add pheromone to the directed Edge between two Vertices while other threads
+     * may be depositing on the same Edge or evaporating the Matrix. No update is
+     * lost. Unless overridden the whole Matrix is locked for the deposit; every
+     * Matrix overrides it with a lock-free compare-and-set on the Edge, except the
+     * FixedPointMatrix, whose deposits may rescale every Edge and so still take
+     * the lock, one ant at a time.
+     * @param from      The index of the Vertex the Edge leaves
+     * @param to        The index of the Vertex the Edge enters
+     * @param amount    The amount of pheromone to add
+     */
+    default void depositConcurrently (int from, int to, double amount) {
+        synchronized (this) {
+            deposit(from, to, amount);
+        }
+    }
+
+    /**
+     * Multiply the pheromone on every Edge by the same factor while other threads
+     * may be depositing. No deposit is lost. Unless overridden the whole Matrix is
+     * locked while it evaporates.
+     * @param factor    The fraction of pheromone that remains on each Edge
+     */
+    default void evaporateConcurrently (double factor) {
+        synchronized (this) {
+            evaporate(factor);
+        }
+    }
+
+    /**
+     * Check whether both directions of an Edge share a single entry, in which
+     * case a symmetric update only needs to be written once.
+     * @return          true if (from, to) and (to, from) are the same entry, false unless overridden
+     */
+    default boolean isSymmetric () {
+        return false;
+    }
+
+    /**
+     * Make room for up to an amount of pheromone to be deposited on any Edge.
+     * A Matrix with a limited range may rescale itself here, which is not safe
+     * during deposits from several threads, so it must be called beforehand.
+     * @param amount    The most pheromone any Edge will receive before the next call
+     */
+    default void reserve (double amount) {
+    }
+
+    /**
+     * Copy the pheromone on every Edge, such as to save it to a file. The copy
+     * keeps the pheromones in whatever form the Matrix stores them, so it is no
+     * larger than the Matrix and can only be restored into one of the same kind
+     * and size. Unless overridden every directed Edge is copied as a double.
+     * @return          A copy of the pheromones
+     */
+    default Snapshot snapshot () {
+        int size = size();
+        double[] pheromones = new double[size * size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (i != j) {
+                    pheromones[i * size + j] = getPheromone(i, j);
+                }
+            }
+        }
+        return out -> Snapshots.write(out, pheromones);
+    }
+
+    /**
+     * Replace the pheromone on every Edge with a copy written by a snapshot.
+     * @param in        The input to read the copy from
+     * @throws IOException  If the input could not be read
+     */
+    default void restore (DataInput in) throws IOException {
+        int size = size();
+        double[] pheromones = new double[size * size];
+        Snapshots.read(in, pheromones);
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (i != j) {
+                    setPheromone(i, j, pheromones[i * size + j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Set the pheromone on every Edge to the same value.
+     * @param pheromone The new pheromone on each Edge
+     */
+    default void fill (double pheromone) {
+        for (int i = 0; i < size(); i++) {
+            for (int j = 0; j < size(); j++) {
+                if (i != j) {
+                    setPheromone(i, j, pheromone);
+                }
+            }
+        }
+    }
+
+    /**
+     * Keep the pheromone on every Edge within bounds.
+     * @param min       The least pheromone an Edge may have
+     * @param max       The most pheromone an Edge may have
+     */
+    default void clamp (double min, double max) {
+        for (int i = 0; i < size(); i++) {
+            for (int j = 0; j < size(); j++) {
+                if (i != j) {
+                    setPheromone(i, j, Math.max(min, Math.min(max, getPheromone(i, j))));
+                }
+            }
+        }
+    }
+
+    /**
+     * Move the pheromone on every Edge part of the way towards a target,
+     * which evens out the differences between the Edges.
+     * @param target    The pheromone every Edge moves towards
+     * @param fraction  How far each Edge moves, where 1 reaches the target
+     */
+    default void smooth (double target, double fraction) {
+        for (int i = 0; i < size(); i++) {
+            for (int j = 0; j < size(); j++) {
+                if (i != j) {
+                    double p = getPheromone(i, j);
+                    setPheromone(i, j, p + fraction * (target - p));
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,29 @@
+package Graph;
+
+/**
+ * Measures the distance between two Vertices of a Graph, addressed by index.
+ * <br />
+ * By default a Graph measures the straight line between the coordinates of
+ * its Vertices. A data set may supply its own Metric, such as a rounded
+ * distance or an explicit matrix of weights.
+ */
+public interface Metric {
+
+    /**
+     * Get the distance between two Vertices.
+     * @param from      The index of the first Vertex
+     * @param to        The index of the second Vertex
+     * @return          The distance between the two Vertices
+     */
+    double distance (int from, int to);
+
+    /**
+     * Check whether every distance is a whole number, so that it can be stored
+     * as an int without changing any tour length.
+     * @return          true if every distance is integral, false unless overridden
+     */
+    default boolean isIntegral () {
+        return false;
+    }
+
+}
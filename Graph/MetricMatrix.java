@@ -0,0 +1,109 @@
+package Graph;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A Matrix that stores the pheromones in a flat primitive array, but reads the
+ * distances from the Metric of the Graph whenever they are needed.
+ * <br />
+ * This suits Metrics that are already backed by a table of precomputed
+ * distances, such as a memory-mapped cache file, which would only be
+ * duplicated by copying it into a DenseMatrix.
+ */
+public class MetricMatrix implements Matrix, FlatPheromones {
+
+    private int size;
+    private Metric metric;
+    private double[] pheromones;
+
+    /**
+     * Construct the MetricMatrix.
+     * @param size      The number of Vertices
+     * @param metric    The Metric holding the distances between the Vertices
+     */
+    public MetricMatrix (int size, Metric metric) {
+        this.size = size;
+        this.metric = metric;
+        this.pheromones = new double[DenseMatrix.entries(size)];
+        Arrays.fill(pheromones, Edge.INITIAL_PHEROMONE);
+    }
+
+    @Override
+    public int size () {
+        return size;
+    }
+
+    @Override
+    public double getDistance (int from, int to) {
+        return metric.distance(from, to);
+    }
+
+    @Override
+    public double getPheromone (int from, int to) {
+        return pheromones[from * size + to];
+    }
+
+    @Override
+    public void setPheromone (int from, int to, double pheromone) {
+        pheromones[from * size + to] = pheromone;
+    }
+
+    @Override
+    public void deposit (int from, int to, double amount) {
+        pheromones[from * size + to] += amount;
+    }
+
+    @Override
+    public void evaporate (double factor) {
+        Kernels.get().scale(pheromones, 0, pheromones.length, factor);
+    }
+
+    @Override
+    public void depositConcurrently (int from, int to, double amount) {
+        Atomics.add(pheromones, from * size + to, amount);
+    }
+
+    @Override
+    public void evaporateConcurrently (double factor) {
+        Atomics.scale(pheromones, 0, pheromones.length, factor);
+    }
+
+    @Override
+    public void fill (double pheromone) {
+        Arrays.fill(pheromones, pheromone);
+    }
+
+    @Override
+    public void clamp (double min, double max) {
+        Kernels.get().clamp(pheromones, 0, pheromones.length, min, max);
+    }
+
+    @Override
+    public void smooth (double target, double fraction) {
+        Kernels.get().smooth(pheromones, 0, pheromones.length, target, fraction);
+    }
+
+    @Override
+    public Snapshot snapshot () {
+        double[] copy = pheromones.clone();
+        return out -> Snapshots.write(out, copy);
+    }
+
+    @Override
+    public void restore (DataInput in) throws IOException {
+        Snapshots.read(in, pheromones);
+    }
+
+    @Override
+    public double[] pheromones () {
+        return pheromones;
+    }
+
+    @Override
+    public boolean isLaidOutBy (CandidateList candidates) {
+        return candidates == null;
+    }
+
+}
@@ -0,0 +1,217 @@
+package Graph;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A Matrix that stores the pheromones outside the Java heap, in direct or
+ * memory-mapped buffers, and reads the distances from the Metric of the Graph
+ * whenever they are needed.
+ * <br />
+ * The pheromones are laid out row by row, as in a DenseMatrix, but split into
+ * blocks of whole rows so that no buffer holds more than BLOCK_BYTES. A row is
+ * then always contiguous, which is the order the ants read it in, and the
+ * Matrix as a whole may hold far more than the 2^31 entries of an array. The
+ * entry for the directed Edge (from, to) lives in block from / rowsPerBlock.
+ * <br />
+ * Direct buffers count against -XX:MaxDirectMemorySize, which is the size of
+ * the heap unless set. A Matrix backed by a file instead leaves it to the page
+ * cache, so it may even be larger than the memory of the machine.
+ */
+public class OffHeapMatrix implements Matrix {
+
+    /**
+     * The most bytes of pheromones held in a single buffer. Each buffer holds whole rows.
+     */
+    private static final long BLOCK_BYTES = 1L << 30;
+
+    private int size;
+    private Metric metric;
+    private ByteBuffer[] buffers;
+    private DoubleBuffer[] blocks;
+    private int rowsPerBlock;
+
+    /**
+     * Construct the OffHeapMatrix with its pheromones in direct buffers.
+     * @param size      The number of Vertices
+     * @param metric    The Metric holding the distances between the Vertices
+     */
+    public OffHeapMatrix (int size, Metric metric) {
+        this(size, metric, null);
+    }
+
+    /**
+     * Construct the OffHeapMatrix with its pheromones in a memory-mapped file.
+     * The file is overwritten, and only holds the pheromones while the Matrix is in use.
+     * @param size      The number of Vertices
+     * @param metric    The Metric holding the distances between the Vertices
+     * @param file      The file to map the pheromones to, or null for direct buffers
+     */
+    public OffHeapMatrix (int size, Metric metric, Path file) {
+        this.size = size;
+        this.metric = metric;
+        this.rowsPerBlock = (int)Math.max(1, Math.min(size, BLOCK_BYTES / (Math.max(1, size) * 8L)));
+        this.buffers = new ByteBuffer[(size + rowsPerBlock - 1) / rowsPerBlock];
+        this.blocks = new DoubleBuffer[buffers.length];
+
+        if (file == null) {
+            for (int b = 0; b < blocks.length; b++) {
+                buffers[b] = ByteBuffer.allocateDirect(blockBytes(b)).order(ByteOrder.nativeOrder());
+                blocks[b] = buffers[b].asDoubleBuffer();
+            }
+        } else {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long position = 0;
+                for (int b = 0; b < blocks.length; b++) {
+                    // A mapping stays valid once the channel is closed.
+                    buffers[b] = channel.map(FileChannel.MapMode.READ_WRITE, position, blockBytes(b))
+                            .order(ByteOrder.nativeOrder());
+                    blocks[b] = buffers[b].asDoubleBuffer();
+                    position += blockBytes(b);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Could not map the pheromones to " + file, ex);
+            }
+        }
+
+        fill(Edge.INITIAL_PHEROMONE);
+    }
+
+    /**
+     * Get the number of bytes in a block, which is smaller for the last block.
+     */
+    private int blockBytes (int block) {
+        int rows = Math.min(rowsPerBlock, size - block * rowsPerBlock);
+        return rows * size * 8;
+    }
+
+    @Override
+    public int size () {
+        return size;
+    }
+
+    @Override
+    public double getDistance (int from, int to) {
+        return metric.distance(from, to);
+    }
+
+    @Override
+    public double getPheromone (int from, int to) {
+        return blocks[from / rowsPerBlock].get((from % rowsPerBlock) * size + to);
+    }
+
+    @Override
+    public void setPheromone (int from, int to, double pheromone) {
+        blocks[from / rowsPerBlock].put((from % rowsPerBlock) * size + to, pheromone);
+    }
+
+    /**
+     * Add pheromone to an Edge. Only absolute gets and puts are used, so threads
+     * depositing into different rows never interfere.
+     */
+    @Override
+    public void deposit (int from, int to, double amount) {
+        DoubleBuffer block = blocks[from / rowsPerBlock];
+        int index = (from % rowsPerBlock) * size + to;
+        block.put(index, block.get(index) + amount);
+    }
+
+    /**
+     * Add pheromone to an Edge with a compare-and-set on its place in the
+     * buffer, the same lock-free update the Matrices on the heap make.
+     */
+    @Override
+    public void depositConcurrently (int from, int to, double amount) {
+        Atomics.add(buffers[from / rowsPerBlock], (from % rowsPerBlock) * size + to, amount);
+    }
+
+    @Override
+    public void evaporateConcurrently (double factor) {
+        for (ByteBuffer buffer : buffers) {
+            Atomics.scale(buffer, 0, buffer.capacity() / Double.BYTES, factor);
+        }
+    }
+
+    @Override
+    public void evaporate (double factor) {
+        for (DoubleBuffer block : blocks) {
+            for (int i = 0; i < block.limit(); i++) {
+                block.put(i, block.get(i) * factor);
+            }
+        }
+    }
+
+    @Override
+    public void fill (double pheromone) {
+        for (DoubleBuffer block : blocks) {
+            for (int i = 0; i < block.limit(); i++) {
+                block.put(i, pheromone);
+            }
+        }
+    }
+
+    @Override
+    public void clamp (double min, double max) {
+        for (DoubleBuffer block : blocks) {
+            for (int i = 0; i < block.limit(); i++) {
+                block.put(i, Math.max(min, Math.min(max, block.get(i))));
+            }
+        }
+    }
+
+    @Override
+    public void smooth (double target, double fraction) {
+        for (DoubleBuffer block : blocks) {
+            for (int i = 0; i < block.limit(); i++) {
+                double p = block.get(i);
+                block.put(i, p + fraction * (target - p));
+            }
+        }
+    }
+
+    /**
+     * Write the pheromones straight from the blocks, a chunk at a time, since
+     * a copy would need as much heap as the pheromones take outside it. The
+     * Matrix must not change until the Snapshot has been written.
+     */
+    @Override
+    public Snapshot snapshot () {
+        return new Snapshot() {
+            @Override
+            public void write (DataOutput out) throws IOException {
+                out.writeInt(blocks.length);
+                for (DoubleBuffer block : blocks) {
+                    Snapshots.write(out, block);
+                }
+            }
+
+            @Override
+            public boolean isCopy () {
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Read the pheromones straight into the blocks, without a copy on the heap.
+     */
+    @Override
+    public void restore (DataInput in) throws IOException {
+        if (in.readInt() != blocks.length) {
+            throw new IllegalArgumentException("The snapshot was taken from a different Matrix.");
+        }
+        for (DoubleBuffer block : blocks) {
+            Snapshots.read(in, block);
+        }
+    }
+
+}
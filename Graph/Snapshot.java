@@ -0,0 +1,34 @@
+package Graph;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A copy of the pheromones of a Matrix, in the form the Matrix stores them,
+ * taken so that it can be written out while the Matrix carries on changing.
+ * A Matrix too large to copy may instead write its pheromones in place, in
+ * which case it must not change until the Snapshot has been written.
+ * <br />
+ * What a Snapshot writes is read back by Matrix.restore(), which only accepts
+ * what was written by a Matrix of the same kind and size.
+ */
+@FunctionalInterface
+public interface Snapshot {
+
+    /**
+     * Write the copy of the pheromones.
+     * @param out       The output to write to
+     * @throws IOException  If the output could not be written
+     */
+    void write (DataOutput out) throws IOException;
+
+    /**
+     * Check whether the Snapshot holds a copy of the pheromones, or reads them
+     * from the Matrix as it writes them.
+     * @return          true unless overridden
+     */
+    default boolean isCopy () {
+        return true;
+    }
+
+}
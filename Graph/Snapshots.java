@@ -0,0 +1,112 @@
+package Graph;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+
+/**
+ * Writes and reads the flat arrays that the Matrices keep their pheromones in,
+ * each preceded by the type and number of its elements so that a Matrix never
+ * restores an array written by a Matrix of another kind or size.
+ */
+final class Snapshots {
+
+    private static final int DOUBLES = 'D';
+    private static final int FLOATS = 'F';
+    private static final int CHARS = 'C';
+
+    /**
+     * The number of doubles a buffer outside the heap is copied through at a time.
+     */
+    private static final int CHUNK = 8192;
+
+    private Snapshots () {
+    }
+
+    static void write (DataOutput out, double[] values) throws IOException {
+        out.writeByte(DOUBLES);
+        out.writeInt(values.length);
+        for (double value : values) {
+            out.writeDouble(value);
+        }
+    }
+
+    static void read (DataInput in, double[] values) throws IOException {
+        expect(in, DOUBLES, values.length);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readDouble();
+        }
+    }
+
+    static void write (DataOutput out, float[] values) throws IOException {
+        out.writeByte(FLOATS);
+        out.writeInt(values.length);
+        for (float value : values) {
+            out.writeFloat(value);
+        }
+    }
+
+    static void read (DataInput in, float[] values) throws IOException {
+        expect(in, FLOATS, values.length);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readFloat();
+        }
+    }
+
+    static void write (DataOutput out, char[] values) throws IOException {
+        out.writeByte(CHARS);
+        out.writeInt(values.length);
+        for (char value : values) {
+            out.writeChar(value);
+        }
+    }
+
+    static void read (DataInput in, char[] values) throws IOException {
+        expect(in, CHARS, values.length);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readChar();
+        }
+    }
+
+    /**
+     * Write a buffer of doubles in the same form as an array, a chunk at a
+     * time, so that a buffer outside the heap is never copied onto it whole.
+     */
+    static void write (DataOutput out, DoubleBuffer values) throws IOException {
+        out.writeByte(DOUBLES);
+        out.writeInt(values.limit());
+        double[] chunk = new double[CHUNK];
+        ByteBuffer bytes = ByteBuffer.allocate(CHUNK * Double.BYTES);
+        for (int i = 0; i < values.limit(); i += CHUNK) {
+            int length = Math.min(CHUNK, values.limit() - i);
+            values.get(i, chunk, 0, length);
+            bytes.asDoubleBuffer().put(chunk, 0, length);
+            out.write(bytes.array(), 0, length * Double.BYTES);
+        }
+    }
+
+    static void read (DataInput in, DoubleBuffer values) throws IOException {
+        expect(in, DOUBLES, values.limit());
+        double[] chunk = new double[CHUNK];
+        ByteBuffer bytes = ByteBuffer.allocate(CHUNK * Double.BYTES);
+        for (int i = 0; i < values.limit(); i += CHUNK) {
+            int length = Math.min(CHUNK, values.limit() - i);
+            in.readFully(bytes.array(), 0, length * Double.BYTES);
+            bytes.asDoubleBuffer().get(chunk, 0, length);
+            values.put(i, chunk, 0, length);
+        }
+    }
+
+    /**
+     * Check the header of an array before any of its elements are read, so a
+     * mismatch leaves the pheromones as they were.
+     */
+    private static void expect (DataInput in, int type, int length) throws IOException {
+        if (in.readByte() != type || in.readInt() != length) {
+            throw new IllegalArgumentException("The snapshot was taken from a different Matrix.");
+        }
+    }
+
+}
@@ -0,0 +1,158 @@
+package Graph;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A Matrix that only keeps the pheromones of the Edges to the nearest
+ * neighbours of each Vertex, and reads the distances from the Metric of the
+ * Graph whenever they are needed. Every other Edge shares a single background
+ * pheromone, which evaporates and is bounded like the rest but receives no
+ * deposits, so the ants only fall back on those Edges once the neighbours of
+ * a Vertex have all been visited.
+ * <br />
+ * Memory grows with the number of Vertices times the number of neighbours
+ * rather than with its square, which is what makes instances with tens of
+ * thousands of Vertices fit in memory.
+ */
+public class SparseMatrix implements Matrix, FlatPheromones {
+
+    private int size, width;
+    private Metric metric;
+    private CandidateList candidates;
+    private double[] pheromones;
+    private double background;
+
+    /**
+     * Construct the SparseMatrix.
+     * @param candidates    The nearest neighbours of each Vertex, whose Edges keep their own pheromone
+     * @param metric        The Metric measuring the distances between the Vertices
+     * @param size          The number of Vertices
+     */
+    public SparseMatrix (CandidateList candidates, Metric metric, int size) {
+        this.size = size;
+        this.width = candidates.size();
+        this.metric = metric;
+        this.candidates = candidates;
+        this.pheromones = new double[size * width];
+        fill(Edge.INITIAL_PHEROMONE);
+    }
+
+    @Override
+    public int size () {
+        return size;
+    }
+
+    @Override
+    public double getDistance (int from, int to) {
+        return metric.distance(from, to);
+    }
+
+    @Override
+    public double getPheromone (int from, int to) {
+        int k = rank(from, to);
+        return k == -1 ? background : pheromones[from * width + k];
+    }
+
+    @Override
+    public void setPheromone (int from, int to, double pheromone) {
+        int k = rank(from, to);
+        if (k != -1) {
+            pheromones[from * width + k] = pheromone;
+        }
+    }
+
+    @Override
+    public void deposit (int from, int to, double amount) {
+        int k = rank(from, to);
+        if (k != -1) {
+            pheromones[from * width + k] += amount;
+        }
+    }
+
+    @Override
+    public void evaporate (double factor) {
+        Kernels.get().scale(pheromones, 0, pheromones.length, factor);
+        background *= factor;
+    }
+
+    @Override
+    public void depositConcurrently (int from, int to, double amount) {
+        int k = rank(from, to);
+        if (k != -1) {
+            Atomics.add(pheromones, from * width + k, amount);
+        }
+    }
+
+    /**
+     * Evaporate the pheromones without losing any deposit. The background
+     * pheromone never receives deposits, so it is simply multiplied.
+     */
+    @Override
+    public void evaporateConcurrently (double factor) {
+        Atomics.scale(pheromones, 0, pheromones.length, factor);
+        background *= factor;
+    }
+
+    @Override
+    public void fill (double pheromone) {
+        Arrays.fill(pheromones, pheromone);
+        background = pheromone;
+    }
+
+    @Override
+    public void clamp (double min, double max) {
+        Kernels.get().clamp(pheromones, 0, pheromones.length, min, max);
+        background = Math.max(min, Math.min(max, background));
+    }
+
+    @Override
+    public void smooth (double target, double fraction) {
+        Kernels.get().smooth(pheromones, 0, pheromones.length, target, fraction);
+        background += fraction * (target - background);
+    }
+
+    /**
+     * Copy the pheromones of the nearest neighbours, followed by the background pheromone.
+     */
+    @Override
+    public Snapshot snapshot () {
+        double[] copy = pheromones.clone();
+        double background = this.background;
+        return out -> {
+            Snapshots.write(out, copy);
+            out.writeDouble(background);
+        };
+    }
+
+    @Override
+    public void restore (DataInput in) throws IOException {
+        Snapshots.read(in, pheromones);
+        background = in.readDouble();
+    }
+
+    /**
+     * Find the position of a Vertex among the nearest neighbours of another.
+     * @return          The position, or -1 if it is not one of them
+     */
+    private int rank (int from, int to) {
+        for (int k = 0; k < width; k++) {
+            if (candidates.get(from, k) == to) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public double[] pheromones () {
+        return pheromones;
+    }
+
+    @Override
+    public boolean isLaidOutBy (CandidateList candidates) {
+        return candidates == this.candidates;
+    }
+
+}
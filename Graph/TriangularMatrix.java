@@ -0,0 +1,98 @@
+package Graph;
+
+/**
+ * A Matrix of a symmetric Graph that keeps each undirected Edge only once,
+ * in the upper triangle above the diagonal.
+ * <br />
+ * The entry for the Edge between i and j, where i &lt; j, lives at index
+ * offsets[i] + j, so both directions of an Edge read and write the same entry.
+ * Distances are measured once on construction and kept as ints when the Metric
+ * is integral, or as floats otherwise. Subclasses decide how the pheromones are
+ * stored, indexed the same way.
+ */
+public abstract class TriangularMatrix implements Matrix {
+
+    private final int size;
+    private final int[] offsets;
+    private final int[] wholeDistances;
+    private final float[] distances;
+
+    /**
+     * Construct the TriangularMatrix by measuring the distance between every pair of Vertices.
+     * @param size      The number of Vertices
+     * @param metric    The Metric used to measure the distances
+     */
+    protected TriangularMatrix (int size, Metric metric) {
+        int entries = entries(size);
+        this.size = size;
+
+        offsets = new int[size];
+        for (int i = 0; i < size; i++) {
+            // The entries of the rows before i, less the i + 1 columns of row i below the diagonal.
+            offsets[i] = (int)((long)i * size - (long)i * (i + 1) / 2 - i - 1);
+        }
+
+        if (metric.isIntegral()) {
+            wholeDistances = new int[entries];
+            distances = null;
+        } else {
+            wholeDistances = null;
+            distances = new float[entries];
+        }
+
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size; j++) {
+                double distance = metric.distance(i, j);
+                if (wholeDistances != null) {
+                    wholeDistances[offsets[i] + j] = (int)distance;
+                } else {
+                    distances[offsets[i] + j] = (float)distance;
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the number of entries in the upper triangle of a Matrix.
+     * @param size      The number of Vertices
+     * @return          The number of undirected Edges between them
+     */
+    protected static int entries (int size) {
+        long entries = (long)size * (size - 1) / 2;
+        if (entries > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many Vertices (" + size
+                    + ") to keep every Edge in a single array, use SPARSE storage instead.");
+        }
+        return (int)entries;
+    }
+
+    /**
+     * Get the index of the entry shared by both directions of an Edge.
+     * @param from      The index of one Vertex
+     * @param to        The index of another Vertex, never from itself
+     * @return          The index into the upper triangle
+     */
+    protected final int index (int from, int to) {
+        return from < to ? offsets[from] + to : offsets[to] + from;
+    }
+
+    @Override
+    public int size () {
+        return size;
+    }
+
+    @Override
+    public double getDistance (int from, int to) {
+        if (from == to) {
+            return 0;
+        }
+        int index = index(from, to);
+        return wholeDistances != null ? wholeDistances[index] : distances[index];
+    }
+
+    @Override
+    public boolean isSymmetric () {
+        return true;
+    }
+
+}
@@ -21,6 +21,7 @@ public class Vertex extends Node implements Iterable<Edge> {
 
     private HashMap<Integer, Edge> hashMap = new HashMap<>();
     private ArrayList<Edge> list;
+    private int index;
 
     /**
      * Construct the Vertex.
@@ -51,6 +52,23 @@ public class Vertex extends Node implements Iterable<Edge> {
         }
     }
 
+    /**
+     * Get the position of this Vertex within its Graph.
+     * @return          The index of the Vertex
+     */
+    public int getIndex () {
+        return index;
+    }
+
+    /**
+     * Set the position of this Vertex within its Graph.
+     * Only the Graph should assign indices.
+     * @param index     The index of the Vertex
+     */
+    void setIndex (int index) {
+        this.index = index;
+    }
+
     public Edge getEdge (Node n) {
         return hashMap.get(n.hashCode());
     }
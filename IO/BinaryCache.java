@@ -0,0 +1,221 @@
+package IO;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Stores a data set together with every distance between its cities in a
+ * compact binary file, which is memory-mapped when it is loaded again.
+ * <br />
+ * Loading a cache neither parses text nor measures a single distance, so
+ * repeated runs on the same data set start almost immediately. Since the
+ * distances are read straight from the mapped file, every process that
+ * loads the same cache shares one copy of them through the page cache.
+ * <br />
+ * Layout, little endian:
+ * <pre>
+ *   int     magic number
+ *   int     version
+ *   int     dimension
+ *   int     edge weight type (ordinal)
+ *   int     1 if the cities have coordinates, otherwise 0
+ *   int     length of the name in bytes, followed by the name in UTF-8
+ *   padding up to a multiple of 8 bytes
+ *   double  x coordinate of each city, then y coordinate of each city (if present)
+ *   int     distance between every pair of cities, row by row
+ * </pre>
+ */
+public class BinaryCache {
+
+    private static final int MAGIC = 0x41434F54;
+    private static final int VERSION = 1;
+
+    /**
+     * The most bytes of distances mapped in a single buffer. Each buffer holds whole rows.
+     */
+    private static final long BLOCK_BYTES = 1L << 30;
+
+    /**
+     * Load the cache for a TSPLIB file, creating or refreshing it first if it is
+     * missing or older than the TSPLIB file.
+     * @param tsp       the path of the TSPLIB file
+     * @param cache     the path of the cache file
+     * @return          the data set, with its distances read from the mapped cache
+     */
+    public static Instance load (Path tsp, Path cache) {
+        try {
+            if (!Files.exists(cache)
+                    || Files.getLastModifiedTime(cache).compareTo(Files.getLastModifiedTime(tsp)) < 0) {
+                write(TSPLIB.read(tsp), cache);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not refresh the cache " + cache, ex);
+        }
+        return read(cache);
+    }
+
+    /**
+     * Write a data set and all its distances to a cache file.
+     * TSPLIB distances are always whole numbers, so they are stored as ints.
+     * <br />
+     * The file is written next to the cache first and then moved into place, so
+     * a process that is killed while writing never leaves a half written cache,
+     * and a process that has the old cache mapped keeps reading the old file.
+     * @param instance  the data set
+     * @param cache     the path of the cache file
+     */
+    public static void write (Instance instance, Path cache) {
+        int n = instance.getDimension();
+        byte[] name = instance.getName().getBytes(StandardCharsets.UTF_8);
+        Path temporary = cache.resolveSibling(cache.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+            ByteBuffer header = ByteBuffer.allocate(headerSize(name.length)).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(instance.getType().ordinal());
+            header.putInt(instance.hasCoordinates() ? 1 : 0).putInt(name.length).put(name);
+            header.position(header.capacity());
+            header.flip();
+            writeFully(channel, header);
+
+            if (instance.hasCoordinates()) {
+                ByteBuffer coordinates = ByteBuffer.allocate(n * 16).order(ByteOrder.LITTLE_ENDIAN);
+                for (int i = 0; i < n; i++) {
+                    coordinates.putDouble(instance.getX(i));
+                }
+                for (int i = 0; i < n; i++) {
+                    coordinates.putDouble(instance.getY(i));
+                }
+                coordinates.flip();
+                writeFully(channel, coordinates);
+            }
+
+            // Stream the distances a row at a time so the whole matrix is never held in memory.
+            ByteBuffer row = ByteBuffer.allocate(n * 4).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < n; i++) {
+                row.clear();
+                for (int j = 0; j < n; j++) {
+                    double distance = instance.distance(i, j);
+                    if (distance != (int)distance) {
+                        throw new IllegalArgumentException("Only whole number distances can be cached, not "
+                                + distance);
+                    }
+                    row.putInt((int)distance);
+                }
+                row.flip();
+                writeFully(channel, row);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write the cache " + temporary, ex);
+        }
+
+        try {
+            Files.move(temporary, cache, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not replace the cache " + cache, ex);
+        }
+    }
+
+    /**
+     * Map a cache file written by write().
+     * @param cache     the path of the cache file
+     * @return          the data set, with its distances read from the mapped cache
+     */
+    public static Instance read (Path cache) {
+        try (FileChannel channel = FileChannel.open(cache, StandardOpenOption.READ)) {
+
+            ByteBuffer fixed = map(channel, 0, 24);
+            if (fixed.getInt() != MAGIC || fixed.getInt() != VERSION) {
+                throw new IllegalArgumentException(cache + " is not a cache of this version.");
+            }
+            int n = fixed.getInt();
+            Instance.EdgeWeightType type = Instance.EdgeWeightType.values()[fixed.getInt()];
+            boolean hasCoordinates = fixed.getInt() == 1;
+            int nameLength = fixed.getInt();
+
+            byte[] name = new byte[nameLength];
+            map(channel, 24, nameLength).get(name);
+            long position = headerSize(nameLength);
+
+            double[] x = null, y = null;
+            if (hasCoordinates) {
+                x = new double[n];
+                y = new double[n];
+                ByteBuffer coordinates = map(channel, position, n * 16L);
+                coordinates.asDoubleBuffer().get(x).get(y);
+                position += n * 16L;
+            }
+
+            int rowsPerBlock = (int)Math.max(1, Math.min(n, BLOCK_BYTES / (n * 4L)));
+            IntBuffer[] blocks = new IntBuffer[(n + rowsPerBlock - 1) / rowsPerBlock];
+            for (int b = 0; b < blocks.length; b++) {
+                int rows = Math.min(rowsPerBlock, n - b * rowsPerBlock);
+                blocks[b] = map(channel, position, rows * n * 4L).asIntBuffer();
+                position += rows * n * 4L;
+            }
+
+            return new MappedInstance(new String(name, StandardCharsets.UTF_8), n, type, x, y,
+                    blocks, rowsPerBlock);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not read the cache " + cache, ex);
+        }
+    }
+
+    private static int headerSize (int nameLength) {
+        return (24 + nameLength + 7) & ~7;
+    }
+
+    private static MappedByteBuffer map (FileChannel channel, long position, long size) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    private static void writeFully (FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * A data set whose distances are read from mapped blocks of whole rows.
+     */
+    private static class MappedInstance extends Instance {
+
+        private int dimension;
+        private IntBuffer[] blocks;
+        private int rowsPerBlock;
+
+        MappedInstance (String name, int dimension, EdgeWeightType type, double[] x, double[] y,
+                        IntBuffer[] blocks, int rowsPerBlock) {
+            super(name, dimension, type, x, y);
+            this.dimension = dimension;
+            this.blocks = blocks;
+            this.rowsPerBlock = rowsPerBlock;
+        }
+
+        @Override
+        public double distance (int from, int to) {
+            return blocks[from / rowsPerBlock].get((from % rowsPerBlock) * dimension + to);
+        }
+
+        @Override
+        public boolean isIntegral () {
+            // The cache only holds whole distances.
+            return true;
+        }
+
+    }
+
+}
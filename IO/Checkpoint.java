@@ -0,0 +1,175 @@
+package IO;
+
+import Graph.Matrix;
+import Graph.Snapshot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * The state of a run that is needed to carry on from where it left off: the
+ * pheromones, the best tour, the next generation, how long the best tour has
+ * stood, the state of the Algorithm and the seed every random decision is
+ * derived from.
+ * <br />
+ * The pheromones are written by the Matrix in the form it stores them, so a
+ * checkpoint is no larger than the Matrix. They come last and are only read
+ * when restored into a Matrix, so reading a checkpoint never needs a second
+ * copy of them in memory.
+ * <br />
+ * The file is written next to its final path first and then moved into place,
+ * so a run that is killed while writing never leaves a half written checkpoint.
+ */
+public class Checkpoint {
+
+    private static final int MAGIC = 0x4143434B;
+    private static final int VERSION = 3;
+
+    private long seed;
+    private int generation;
+    private long bestEval;
+    private int sinceImprovement;
+    private int[] bestCities;
+    private long[] algorithmState;
+    private Snapshot pheromones;
+    private Path file;
+    private long pheromonesAt;
+
+    /**
+     * Construct the Checkpoint.
+     * @param seed              the master seed of the run
+     * @param generation        the number of the next generation to run
+     * @param bestEval          the evaluation of the best tour so far
+     * @param sinceImprovement  the number of generations since the best tour improved
+     * @param bestCities        the cities of the best tour so far, without the return to the start
+     * @param algorithmState    the state of the Algorithm
+     * @param pheromones        a snapshot of the pheromones
+     */
+    public Checkpoint (long seed, int generation, long bestEval, int sinceImprovement, int[] bestCities,
+                       long[] algorithmState, Snapshot pheromones) {
+        this.seed = seed;
+        this.generation = generation;
+        this.bestEval = bestEval;
+        this.sinceImprovement = sinceImprovement;
+        this.bestCities = bestCities;
+        this.algorithmState = algorithmState;
+        this.pheromones = pheromones;
+    }
+
+    public long getSeed () {
+        return seed;
+    }
+
+    public int getGeneration () {
+        return generation;
+    }
+
+    public long getBestEval () {
+        return bestEval;
+    }
+
+    public int getSinceImprovement () {
+        return sinceImprovement;
+    }
+
+    public int[] getBestCities () {
+        return bestCities;
+    }
+
+    public long[] getAlgorithmState () {
+        return algorithmState;
+    }
+
+    /**
+     * Write the Checkpoint to a file, replacing any previous one.
+     * @param path      the path of the checkpoint file
+     */
+    public void write (Path path) {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(seed);
+            out.writeInt(generation);
+            out.writeLong(bestEval);
+            out.writeInt(sinceImprovement);
+            out.writeInt(bestCities.length);
+            for (int city : bestCities) {
+                out.writeInt(city);
+            }
+            out.writeInt(algorithmState.length);
+            for (long value : algorithmState) {
+                out.writeLong(value);
+            }
+            pheromones.write(out);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write the checkpoint " + temporary, ex);
+        }
+
+        try {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not replace the checkpoint " + path, ex);
+        }
+    }
+
+    /**
+     * Read a Checkpoint written by write(), up to its pheromones.
+     * @param path      the path of the checkpoint file
+     * @return          the Checkpoint
+     */
+    public static Checkpoint read (Path path) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IllegalArgumentException(path + " is not a checkpoint of this version.");
+            }
+            long seed = in.readLong();
+            int generation = in.readInt();
+            long bestEval = in.readLong();
+            int sinceImprovement = in.readInt();
+            int[] bestCities = new int[in.readInt()];
+            for (int i = 0; i < bestCities.length; i++) {
+                bestCities[i] = in.readInt();
+            }
+            long[] algorithmState = new long[in.readInt()];
+            for (int i = 0; i < algorithmState.length; i++) {
+                algorithmState[i] = in.readLong();
+            }
+
+            Checkpoint checkpoint = new Checkpoint(seed, generation, bestEval, sinceImprovement, bestCities,
+                    algorithmState, null);
+            checkpoint.file = path;
+            // The magic, version, seed, generation, evaluation, counter and both lengths.
+            checkpoint.pheromonesAt = 4 + 4 + 8 + 4 + 8 + 4 + 4 + 4L * bestCities.length
+                    + 4 + 8L * algorithmState.length;
+            return checkpoint;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not read the checkpoint " + path, ex);
+        }
+    }
+
+    /**
+     * Replace the pheromones of a Matrix with those of a Checkpoint read from a file.
+     * @param matrix    a Matrix of the same kind and size as the one the checkpoint was taken from
+     */
+    public void restore (Matrix matrix) {
+        if (file == null) {
+            throw new IllegalStateException("Only a checkpoint read from a file can be restored.");
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            in.skipNBytes(pheromonesAt);
+            matrix.restore(in);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not read the pheromones of the checkpoint " + file, ex);
+        }
+    }
+
+}
@@ -0,0 +1,54 @@
+package IO;
+
+import Ants.Statistics;
+
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * The measurements the FileListener and JsonLinesListener write after every
+ * generation, in the order they are written, each with its name and format.
+ */
+enum Column {
+
+    GENERATION("generation", "%d", Statistics::getGeneration),
+    BEST("best", "%d", Statistics::getBestEval),
+    ITERATION_BEST("iteration_best", "%d", Statistics::getIterationBestEval),
+    MEAN("mean", "%.2f", Statistics::getMeanEval),
+    BRANCHING_FACTOR("branching_factor", "%.4f", Statistics::getBranchingFactor),
+    ENTROPY("entropy", "%.4f", Statistics::getEntropy),
+    ELAPSED_MS("elapsed_ms", "%d", s -> s.getElapsedNanos() / 1_000_000),
+    CONSTRUCTION_MS("construction_ms", "%.3f", s -> s.getConstructionNanos() / 1e6),
+    LOCAL_SEARCH_MS("local_search_ms", "%.3f", s -> s.getLocalSearchNanos() / 1e6),
+    UPDATE_MS("update_ms", "%.3f", s -> s.getUpdateNanos() / 1e6),
+    TOURS_PER_S("tours_per_s", "%.1f", Statistics::getToursPerSecond),
+    STEPS_PER_S("steps_per_s", "%.0f", Statistics::getStepsPerSecond),
+    ALLOCATED_BYTES("allocated_bytes", "%d", Statistics::getAllocatedBytes);
+
+    private final String key;
+    private final String format;
+    private final Function<Statistics, Object> value;
+
+    Column (String key, String format, Function<Statistics, Object> value) {
+        this.key = key;
+        this.format = format;
+        this.value = value;
+    }
+
+    /**
+     * @return      the name of the column, in snake case
+     */
+    String getKey () {
+        return key;
+    }
+
+    /**
+     * Format the value of the column for a generation.
+     * @param statistics    the statistics of the generation
+     * @return              the value, formatted the same way in every locale
+     */
+    String format (Statistics statistics) {
+        return String.format(Locale.ROOT, format, value.apply(statistics));
+    }
+
+}
@@ -0,0 +1,71 @@
+package IO;
+
+import Ants.Ant;
+import Ants.ProgressListener;
+import Ants.Statistics;
+import Graph.Graph;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.StringJoiner;
+
+/**
+ * Writes the evaluations, convergence of the pheromones and timings after
+ * every generation of a run to a CSV file.
+ */
+public class FileListener implements ProgressListener {
+
+    private Path path;
+    private BufferedWriter writer;
+
+    /**
+     * Construct the FileListener. The file is created when the run starts.
+     * @param path      the path of the CSV file
+     */
+    public FileListener (Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public void started (Graph graph) {
+        try {
+            writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+            StringJoiner header = new StringJoiner(",");
+            for (Column column : Column.values()) {
+                header.add(column.getKey());
+            }
+            writer.write(header.toString());
+            writer.newLine();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not create " + path, ex);
+        }
+    }
+
+    @Override
+    public void generation (Statistics statistics) {
+        try {
+            StringJoiner row = new StringJoiner(",");
+            for (Column column : Column.values()) {
+                row.add(column.format(statistics));
+            }
+            writer.write(row.toString());
+            writer.newLine();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write to " + path, ex);
+        }
+    }
+
+    @Override
+    public void finished (Ant best, long bestEval) {
+        try {
+            writer.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not close " + path, ex);
+        }
+    }
+
+}
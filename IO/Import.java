@@ -2,46 +2,115 @@ package IO;
 
 import Graph.*;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 
 /**
- * Helper class for reading the bays29 data set and converting it to a graph.
+ * Helper class for reading TSPLIB data sets and converting them to a graph.
  */
 public class Import {
 
     /**
-     * Read the specified data set and return a graph based on the set.
+     * The data set bundled alongside this class.
+     */
+    private static final String DEFAULT_DATA_SET = "bays29.tsp";
+
+    /**
+     * Read the bundled bays29 data set and return a graph based on the set.
      * @return          the graph representing the data set
      */
     public static Graph getGraph (double evaporationRate, int alpha, int beta) {
+        return getGraph(evaporationRate, alpha, beta, Graph.Storage.EDGES);
+    }
 
-        String dataSetName;
-        int startingLine;
+    /**
+     * Read the bundled bays29 data set and return a graph based on the set.
+     * @param storage   how the graph should store its distances and pheromones
+     * @return          the graph representing the data set
+     */
+    public static Graph getGraph (double evaporationRate, int alpha, int beta, Graph.Storage storage) {
+        try (InputStream stream = Import.class.getResourceAsStream(DEFAULT_DATA_SET)) {
+            return getGraph(TSPLIB.read(stream), evaporationRate, alpha, beta, storage);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
 
-        dataSetName = "bays29.tsp";
-        startingLine = 38;
+    /**
+     * Read a TSPLIB file and return a graph based on the set.
+     * @param path      the path of the TSPLIB file
+     * @param storage   how the graph should store its distances and pheromones
+     * @return          the graph representing the data set
+     */
+    public static Graph getGraph (Path path, double evaporationRate, int alpha, int beta, Graph.Storage storage) {
+        return getGraph(TSPLIB.read(path), evaporationRate, alpha, beta, storage);
+    }
+
+    /**
+     * Read a TSPLIB file through a binary cache of its distances, creating the cache
+     * on the first run. The graph reads its distances straight from the mapped cache.
+     * @param path      the path of the TSPLIB file
+     * @param cache     the path of the cache file
+     * @return          the graph representing the data set
+     */
+    public static Graph getCachedGraph (Path path, Path cache, double evaporationRate, int alpha, int beta) {
+        return getGraph(BinaryCache.load(path, cache), evaporationRate, alpha, beta, Graph.Storage.MAPPED);
+    }
 
-        String[] lines = read(dataSetName).split("\n");
-        String[] words = lines[3].split(" ");
-        int numOfCities = Integer.parseInt(words[words.length-1]);
+    /**
+     * Convert a data set into a graph that measures distances the way the data set defines them.
+     * @param instance  the data set
+     * @param storage   how the graph should store its distances and pheromones
+     * @return          the graph representing the data set
+     */
+    public static Graph getGraph (Instance instance, double evaporationRate, int alpha, int beta,
+                                  Graph.Storage storage) {
+
+        int numOfCities = instance.getDimension();
 
         Vertex[] vertices = new Vertex[numOfCities];
 
-        // Read each line and turn it into a Vertex.
-        for (int i = startingLine; i < startingLine+numOfCities; i++) {
-            String[] line = removeWhiteSpace(lines[i]).trim().split(" ");
-            int x = (int)Double.parseDouble(line[1].trim());
-            int y = (int)Double.parseDouble(line[2].trim());
-            Vertex v = new Vertex(line[0], x, y);
-            vertices[i-startingLine] = v;
+        // Turn each city into a Vertex.
+        for (int i = 0; i < numOfCities; i++) {
+            int x, y;
+            if (instance.hasCoordinates()) {
+                x = (int)instance.getX(i);
+                y = (int)instance.getY(i);
+            } else {
+                // Without coordinates, spread the cities around a circle so that they can still be drawn.
+                double angle = 2 * Math.PI * i / numOfCities;
+                double radius = Math.max(1000, numOfCities);
+                x = (int)(radius + radius * Math.cos(angle));
+                y = (int)(radius + radius * Math.sin(angle));
+            }
+            vertices[i] = new Vertex(Integer.toString(i + 1), x, y);
         }
 
-        Graph graph = new Graph(evaporationRate, alpha, beta);
+        Graph graph = new Graph(evaporationRate, alpha, beta, storage);
 
         // Create the spine of the graph (the vertices).
         for (int i = 0; i < numOfCities; i++) {
             graph.addVertex(vertices[i]);
         }
+        graph.setMetric(instance);
+
+        // Explicit distances need not follow the coordinates, which are only for drawing.
+        if (instance.hasCoordinates() && instance.getType() != Instance.EdgeWeightType.EXPLICIT) {
+            double[] x = new double[numOfCities];
+            double[] y = new double[numOfCities];
+            for (int i = 0; i < numOfCities; i++) {
+                x[i] = instance.getX(i);
+                y[i] = instance.getY(i);
+            }
+            graph.setCoordinates(x, y);
+        }
+
+        // Only the original storage keeps its edges as Edge objects.
+        if (storage != Graph.Storage.EDGES) {
+            return graph;
+        }
 
         // Create the edges of the graph (connect every vertex to each other).
         for (Vertex v : graph) {
@@ -55,36 +124,4 @@ public class Import {
         return graph;
     }
 
-    /**
-     * Removes duplicate what spaces in a String.
-     * Example: "   2  3  3,2   " becomes " 2 3 3,2 "
-     * @param s     the String to parse
-     * @return      the String minus the duplicate white spaces
-     */
-    private static String removeWhiteSpace (String s) {
-        for (int i = 1; i < s.length(); i++) {
-            if (s.charAt(i) == ' ' && s.charAt(i-1) == ' ') {
-                if (i != s.length()) {
-                    s = s.substring(0, i) + s.substring(i+1, s.length());
-                    i--;
-                } else {
-                    s = s.substring(0, i);
-                    i--;
-                }
-            }
-        }
-        return s;
-    }
-
-    /**
-     * Read from a file and load it to a String.
-     * @param fileName  the name of the file to read (within the same root as this class)
-     * @return          a String with the contents of the file
-     */
-    private static String read (String fileName) {
-        InputStream stream = Import.class.getResourceAsStream(fileName);
-        java.util.Scanner s = new java.util.Scanner(stream).useDelimiter("\\A");
-        return s.hasNext() ? s.next() : "";
-    }
-
 }
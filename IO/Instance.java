@@ -0,0 +1,169 @@
+package IO;
+
+import Graph.Metric;
+
+/**
+ * A Traveling Salesman data set read from a TSPLIB file.
+ * <br />
+ * Coordinates and explicit weights are held in flat primitive arrays indexed
+ * by city, where city i is the city numbered i + 1 in the file. Distances are
+ * measured the way TSPLIB defines them for the EDGE_WEIGHT_TYPE of the file.
+ */
+public class Instance implements Metric {
+
+    /**
+     * The ways TSPLIB defines the distance between two cities.
+     */
+    public enum EdgeWeightType {
+        EXPLICIT, EUC_2D, CEIL_2D, MAN_2D, MAX_2D, GEO, ATT
+    }
+
+    private static final double PI = 3.141592;
+    private static final double RRR = 6378.388;
+
+    private String name;
+    private int dimension;
+    private EdgeWeightType type;
+    private double[] x, y;
+    private double[] weights;
+    private double[] latitude, longitude;
+    private boolean integral;
+
+    /**
+     * Construct the Instance.
+     * @param name      the name of the data set
+     * @param dimension the number of cities
+     * @param type      how the distances between cities are measured
+     * @param x         the x coordinate of each city, or null if there are none
+     * @param y         the y coordinate of each city, or null if there are none
+     * @param weights   the full matrix of weights for an EXPLICIT data set, otherwise null
+     */
+    public Instance (String name, int dimension, EdgeWeightType type, double[] x, double[] y, double[] weights) {
+        this(name, dimension, type, x, y);
+
+        if (type == EdgeWeightType.EXPLICIT ? weights == null : x == null) {
+            throw new IllegalArgumentException("The " + type + " data set " + name + " has no distances.");
+        }
+
+        this.weights = weights;
+
+        if (weights != null) {
+            integral = true;
+            for (double weight : weights) {
+                if (weight != Math.rint(weight)) {
+                    integral = false;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Construct an Instance whose distances are supplied by a subclass overriding distance().
+     * @param name      the name of the data set
+     * @param dimension the number of cities
+     * @param type      how the distances between cities were originally measured
+     * @param x         the x coordinate of each city, or null if there are none
+     * @param y         the y coordinate of each city, or null if there are none
+     */
+    protected Instance (String name, int dimension, EdgeWeightType type, double[] x, double[] y) {
+        this.name = name;
+        this.dimension = dimension;
+        this.type = type;
+        this.x = x;
+        this.y = y;
+        // Every computed EDGE_WEIGHT_TYPE rounds to a whole number; explicit weights are checked.
+        this.integral = type != EdgeWeightType.EXPLICIT;
+
+        if (type == EdgeWeightType.GEO && x != null) {
+            latitude = new double[dimension];
+            longitude = new double[dimension];
+            for (int i = 0; i < dimension; i++) {
+                latitude[i] = radians(x[i]);
+                longitude[i] = radians(y[i]);
+            }
+        }
+    }
+
+    public String getName () {
+        return name;
+    }
+
+    public int getDimension () {
+        return dimension;
+    }
+
+    public EdgeWeightType getType () {
+        return type;
+    }
+
+    /**
+     * Check whether the cities have coordinates that can be drawn.
+     * @return          true if every city has an x and y coordinate
+     */
+    public boolean hasCoordinates () {
+        return x != null;
+    }
+
+    public double getX (int city) {
+        return x[city];
+    }
+
+    public double getY (int city) {
+        return y[city];
+    }
+
+    @Override
+    public double distance (int from, int to) {
+        if (from == to) {
+            return 0;
+        }
+
+        switch (type) {
+            case EXPLICIT:
+                return weights[from * dimension + to];
+            case EUC_2D:
+                return nint(Math.sqrt(square(x[from] - x[to]) + square(y[from] - y[to])));
+            case CEIL_2D:
+                return Math.ceil(Math.sqrt(square(x[from] - x[to]) + square(y[from] - y[to])));
+            case MAN_2D:
+                return nint(Math.abs(x[from] - x[to]) + Math.abs(y[from] - y[to]));
+            case MAX_2D:
+                return Math.max(nint(Math.abs(x[from] - x[to])), nint(Math.abs(y[from] - y[to])));
+            case GEO:
+                double q1 = Math.cos(longitude[from] - longitude[to]);
+                double q2 = Math.cos(latitude[from] - latitude[to]);
+                double q3 = Math.cos(latitude[from] + latitude[to]);
+                return (int)(RRR * Math.acos(0.5 * ((1.0 + q1) * q2 - (1.0 - q1) * q3)) + 1.0);
+            case ATT:
+                double r = Math.sqrt((square(x[from] - x[to]) + square(y[from] - y[to])) / 10.0);
+                double t = nint(r);
+                return t < r ? t + 1 : t;
+            default:
+                throw new AssertionError("Unknown edge weight type " + type);
+        }
+    }
+
+    @Override
+    public boolean isIntegral () {
+        return integral;
+    }
+
+    /**
+     * Convert a TSPLIB GEO coordinate, written as DDD.MM, to radians.
+     */
+    private static double radians (double coordinate) {
+        int degrees = (int)coordinate;
+        double minutes = coordinate - degrees;
+        return PI * (degrees + 5.0 * minutes / 3.0) / 180.0;
+    }
+
+    private static double nint (double d) {
+        return (int)(d + 0.5);
+    }
+
+    private static double square (double d) {
+        return d * d;
+    }
+
+}
@@ -0,0 +1,67 @@
+package IO;
+
+import Ants.Ant;
+import Ants.ProgressListener;
+import Ants.Statistics;
+import Graph.Graph;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.StringJoiner;
+
+/**
+ * Writes the same measurements as the FileListener as one JSON object per
+ * generation, which log shippers can pick up line by line. Each line is
+ * flushed as it is written so the file can be followed while the run goes on.
+ */
+public class JsonLinesListener implements ProgressListener {
+
+    private Path path;
+    private BufferedWriter writer;
+
+    /**
+     * Construct the JsonLinesListener. The file is created when the run starts.
+     * @param path      the path of the JSON-lines file
+     */
+    public JsonLinesListener (Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public void started (Graph graph) {
+        try {
+            writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not create " + path, ex);
+        }
+    }
+
+    @Override
+    public void generation (Statistics statistics) {
+        try {
+            StringJoiner object = new StringJoiner(",", "{", "}");
+            for (Column column : Column.values()) {
+                object.add("\"" + column.getKey() + "\":" + column.format(statistics));
+            }
+            writer.write(object.toString());
+            writer.newLine();
+            writer.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write to " + path, ex);
+        }
+    }
+
+    @Override
+    public void finished (Ant best, long bestEval) {
+        try {
+            writer.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not close " + path, ex);
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+package IO;
+
+import Ants.Ant;
+import Ants.ProgressListener;
+import Ants.Statistics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+
+/**
+ * Keeps a file in the Prometheus text exposition format up to date with the
+ * latest generation of a run, for the textfile collector of the node exporter
+ * to scrape. The file is replaced atomically so a scrape never sees half of it.
+ */
+public class PrometheusListener implements ProgressListener {
+
+    private Path path;
+    private String labels;
+    private int interval;
+    private double localSearchSeconds, constructionSeconds, updateSeconds;
+    private long tours, allocatedBytes;
+    private Statistics unwritten;
+
+    /**
+     * Construct the PrometheusListener.
+     * @param path      the path of the .prom file
+     * @param run       the value of the run label, to tell runs apart
+     * @param interval  the number of generations between each rewrite of the file
+     */
+    public PrometheusListener (Path path, String run, int interval) {
+        this.path = path;
+        this.labels = "{run=\"" + run.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}";
+        this.interval = Math.max(1, interval);
+    }
+
+    @Override
+    public void generation (Statistics statistics) {
+        constructionSeconds += statistics.getConstructionNanos() / 1e9;
+        localSearchSeconds += statistics.getLocalSearchNanos() / 1e9;
+        updateSeconds += statistics.getUpdateNanos() / 1e9;
+        tours += statistics.getTours();
+        allocatedBytes += Math.max(0, statistics.getAllocatedBytes());
+
+        unwritten = statistics;
+        if ((statistics.getGeneration() + 1) % interval == 0) {
+            write(statistics);
+            unwritten = null;
+        }
+    }
+
+    @Override
+    public void finished (Ant best, long bestEval) {
+        if (unwritten != null) {
+            write(unwritten);
+            unwritten = null;
+        }
+    }
+
+    private void write (Statistics statistics) {
+        StringBuilder text = new StringBuilder();
+        gauge(text, "aco_generation", "The number of generations completed.", statistics.getGeneration() + 1);
+        gauge(text, "aco_best_tour_length", "The length of the best tour so far.", statistics.getBestEval());
+        gauge(text, "aco_iteration_best_tour_length", "The length of the best tour of the last generation.",
+                statistics.getIterationBestEval());
+        gauge(text, "aco_mean_tour_length", "The mean length of the tours of the last generation.",
+                statistics.getMeanEval());
+        gauge(text, "aco_branching_factor", "The lambda-branching factor of the pheromones.",
+                statistics.getBranchingFactor());
+        gauge(text, "aco_pheromone_entropy", "The normalised entropy of the pheromones.", statistics.getEntropy());
+        gauge(text, "aco_tours_per_second", "The tours built per second in the last generation.",
+                statistics.getToursPerSecond());
+        gauge(text, "aco_steps_per_second", "The steps taken per second in the last generation.",
+                statistics.getStepsPerSecond());
+        counter(text, "aco_construction_seconds_total", "The time spent building tours.", constructionSeconds);
+        counter(text, "aco_local_search_seconds_total", "The time spent in local search, over all threads.",
+                localSearchSeconds);
+        counter(text, "aco_update_seconds_total", "The time spent updating the pheromones.", updateSeconds);
+        counter(text, "aco_tours_total", "The tours built.", tours);
+        counter(text, "aco_allocated_bytes_total", "The bytes allocated by the solver threads.", allocatedBytes);
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Files.writeString(temporary, text, StandardCharsets.UTF_8);
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write " + path, ex);
+        }
+    }
+
+    private void gauge (StringBuilder text, String name, String help, double value) {
+        metric(text, name, "gauge", help, value);
+    }
+
+    private void counter (StringBuilder text, String name, String help, double value) {
+        metric(text, name, "counter", help, value);
+    }
+
+    private void metric (StringBuilder text, String name, String type, String help, double value) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        text.append(name).append(labels).append(' ').append(String.format(Locale.ROOT, "%s", value)).append('\n');
+    }
+
+}
@@ -0,0 +1,289 @@
+package IO;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads Traveling Salesman data sets in the TSPLIB format.
+ * <br />
+ * The file is streamed a line at a time. The header keywords are parsed until
+ * a data section is reached, and each section is read straight into primitive
+ * arrays, so even very large data sets never exist as one big String.
+ */
+public class TSPLIB {
+
+    private BufferedReader reader;
+    private String[] tokens = new String[0];
+    private int position;
+    private int lineNumber;
+
+    private String name = "";
+    private int dimension = -1;
+    private Instance.EdgeWeightType type;
+    private String format = "FULL_MATRIX";
+    private double[] x, y;
+    private double[] weights;
+
+    private TSPLIB (BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Read a data set from a file.
+     * @param path      the path of the TSPLIB file
+     * @return          the data set
+     */
+    public static Instance read (Path path) {
+        try (InputStream stream = Files.newInputStream(path)) {
+            return read(stream);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not read " + path, ex);
+        }
+    }
+
+    /**
+     * Read a data set from a stream. The stream is not closed.
+     * @param stream    the stream containing the TSPLIB file
+     * @return          the data set
+     */
+    public static Instance read (InputStream stream) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.US_ASCII));
+        try {
+            return new TSPLIB(reader).parse();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Read only the number of cities of a data set from the header of a file,
+     * such as to decide how to store it before reading the rest.
+     * @param path      the path of the TSPLIB file
+     * @return          the number of cities
+     */
+    public static int readDimension (Path path) {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int colon = line.indexOf(':');
+                String keyword = (colon == -1 ? line : line.substring(0, colon)).trim();
+                if (keyword.equals("DIMENSION")) {
+                    return Integer.parseInt(line.substring(colon + 1).trim());
+                }
+                if (keyword.endsWith("_SECTION") || keyword.equals("EOF")) {
+                    break;
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not read " + path, ex);
+        }
+        throw new IllegalArgumentException("DIMENSION must come before the data sections.");
+    }
+
+    private Instance parse () throws IOException {
+        String line;
+
+        while ((line = readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty()) continue;
+
+            int colon = line.indexOf(':');
+            String keyword = (colon == -1 ? line : line.substring(0, colon)).trim();
+            String value = colon == -1 ? "" : line.substring(colon + 1).trim();
+
+            switch (keyword) {
+                case "NAME":
+                    name = value;
+                    break;
+                case "TYPE":
+                    if (!value.equals("TSP")) {
+                        throw new IllegalArgumentException("Only symmetric TSP data sets are supported, not " + value);
+                    }
+                    break;
+                case "DIMENSION":
+                    dimension = Integer.parseInt(value);
+                    break;
+                case "EDGE_WEIGHT_TYPE":
+                    type = parseType(value);
+                    break;
+                case "EDGE_WEIGHT_FORMAT":
+                    format = value;
+                    break;
+                case "NODE_COORD_SECTION":
+                    readCoordinates(true);
+                    endSection();
+                    break;
+                case "DISPLAY_DATA_SECTION":
+                    readCoordinates(x == null);
+                    endSection();
+                    break;
+                case "EDGE_WEIGHT_SECTION":
+                    readWeights();
+                    endSection();
+                    break;
+                case "EOF":
+                    return build();
+                default:
+                    // COMMENT, DISPLAY_DATA_TYPE, NODE_COORD_TYPE and the like carry nothing we need.
+                    break;
+            }
+        }
+
+        return build();
+    }
+
+    private Instance build () {
+        if (type == null) {
+            throw new IllegalArgumentException("The data set " + name + " has no EDGE_WEIGHT_TYPE.");
+        }
+        return new Instance(name, dimension, type, x, y, weights);
+    }
+
+    private static Instance.EdgeWeightType parseType (String value) {
+        try {
+            return Instance.EdgeWeightType.valueOf(value);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unsupported EDGE_WEIGHT_TYPE " + value, ex);
+        }
+    }
+
+    /**
+     * Read a section of lines in the form "city x y".
+     * @param keep      false to skip over the section without storing it
+     */
+    private void readCoordinates (boolean keep) throws IOException {
+        requireDimension();
+        double[] xs = new double[dimension];
+        double[] ys = new double[dimension];
+
+        for (int i = 0; i < dimension; i++) {
+            double id = nextNumber();
+            if (id < 1 || id > dimension || id != Math.rint(id)) {
+                throw new IllegalArgumentException("Line " + lineNumber + " of the data set " + name + ": the city "
+                        + tokens[position - 1] + " is not a number from 1 to the DIMENSION of " + dimension + ".");
+            }
+            int city = (int)id - 1;
+            xs[city] = nextNumber();
+            ys[city] = nextNumber();
+        }
+
+        if (keep) {
+            x = xs;
+            y = ys;
+        }
+    }
+
+    /**
+     * Read an EDGE_WEIGHT_SECTION into a full matrix, whatever its format.
+     * The column formats of a symmetric matrix list the same values as the
+     * opposite row formats, so they are read the same way.
+     */
+    private void readWeights () throws IOException {
+        requireDimension();
+        int n = dimension;
+        long entries = (long)n * n;
+        if (entries > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many cities (" + n + ") in the data set " + name
+                    + " to keep an EDGE_WEIGHT_SECTION in a single array, give coordinates instead.");
+        }
+        weights = new double[n * n];
+
+        switch (format) {
+            case "FULL_MATRIX":
+                for (int i = 0; i < n * n; i++) {
+                    weights[i] = nextNumber();
+                }
+                return;
+            case "UPPER_ROW":
+            case "LOWER_COL":
+                for (int i = 0; i < n; i++) {
+                    for (int j = i + 1; j < n; j++) {
+                        setWeight(i, j, nextNumber());
+                    }
+                }
+                return;
+            case "LOWER_ROW":
+            case "UPPER_COL":
+                for (int i = 0; i < n; i++) {
+                    for (int j = 0; j < i; j++) {
+                        setWeight(i, j, nextNumber());
+                    }
+                }
+                return;
+            case "UPPER_DIAG_ROW":
+            case "LOWER_DIAG_COL":
+                for (int i = 0; i < n; i++) {
+                    for (int j = i; j < n; j++) {
+                        setWeight(i, j, nextNumber());
+                    }
+                }
+                return;
+            case "LOWER_DIAG_ROW":
+            case "UPPER_DIAG_COL":
+                for (int i = 0; i < n; i++) {
+                    for (int j = 0; j <= i; j++) {
+                        setWeight(i, j, nextNumber());
+                    }
+                }
+                return;
+            default:
+                throw new IllegalArgumentException("Unsupported EDGE_WEIGHT_FORMAT " + format);
+        }
+    }
+
+    private void setWeight (int i, int j, double weight) {
+        weights[i * dimension + j] = weight;
+        weights[j * dimension + i] = weight;
+    }
+
+    /**
+     * Discard anything left on the last line of a section, so that the
+     * next keyword is read from a fresh line.
+     */
+    private void endSection () {
+        tokens = new String[0];
+        position = 0;
+    }
+
+    private void requireDimension () {
+        if (dimension < 0) {
+            throw new IllegalArgumentException("DIMENSION must come before the data sections.");
+        }
+    }
+
+    /**
+     * Read the next number, which may be on the current line or any line after it.
+     * @return          the number
+     */
+    private double nextNumber () throws IOException {
+        while (position == tokens.length) {
+            String line = readLine();
+            if (line == null) {
+                throw new IllegalArgumentException("The data set " + name + " ended in the middle of a section.");
+            }
+            line = line.trim();
+            tokens = line.isEmpty() ? new String[0] : line.split("\\s+");
+            position = 0;
+        }
+        return Double.parseDouble(tokens[position++]);
+    }
+
+    /**
+     * Read the next line, counting it so that errors can say where they are.
+     * @return          the line, or null at the end of the file
+     */
+    private String readLine () throws IOException {
+        String next = reader.readLine();
+        if (next != null) {
+            lineNumber++;
+        }
+        return next;
+    }
+
+}
@@ -0,0 +1,74 @@
+package Islands;
+
+import Ants.Ant;
+import Ants.ProgressListener;
+import Ants.Statistics;
+import Ants.TravelingSalesman;
+
+/**
+ * Connects a colony to the other islands. Every few generations it sends the
+ * best tour of its colony to the others, and offers the colony every tour that
+ * has arrived from them, which the colony adopts if it is shorter than its own.
+ */
+public class Island implements ProgressListener {
+
+    private int number;
+    private TravelingSalesman tsp;
+    private Transport transport;
+    private int interval;
+    private long lastSent = Long.MAX_VALUE;
+
+    /**
+     * Construct the Island and add it as a listener of its colony.
+     * @param number        the number of the island, to tell its migrants apart
+     * @param tsp           the colony of the island
+     * @param transport     carries the migrants to and from the other islands
+     * @param interval      the number of generations between migrations
+     */
+    public Island (int number, TravelingSalesman tsp, Transport transport, int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("The migration interval must be at least one generation.");
+        }
+        this.number = number;
+        this.tsp = tsp;
+        this.transport = transport;
+        this.interval = interval;
+        tsp.addListener(this);
+    }
+
+    public int getNumber () {
+        return number;
+    }
+
+    /**
+     * Run the colony of the island until it finishes.
+     * @return              the ant with the best tour the island found or adopted
+     */
+    public Ant run () {
+        return tsp.run();
+    }
+
+    @Override
+    public void generation (Statistics statistics) {
+        if ((statistics.getGeneration() + 1) % interval != 0) {
+            return;
+        }
+
+        // Only send a tour the others have not had yet.
+        if (statistics.getBestEval() < lastSent) {
+            lastSent = statistics.getBestEval();
+            transport.send(new Migrant(number, lastSent, statistics.getBest().getCities()));
+        }
+
+        for (Migrant migrant : transport.receive()) {
+            if (migrant.getEval() < statistics.getBestEval()) {
+                try {
+                    tsp.immigrate(migrant.getCities());
+                } catch (IllegalArgumentException ex) {
+                    // Not a tour of this instance, such as from a peer solving another one.
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+package Islands;
+
+import Ants.Ant;
+import Ants.TravelingSalesman;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+/**
+ * Runs several independent colonies on their own threads, each with its own
+ * graph and pheromones, exchanging their best tours every few generations.
+ * The colonies never share a pheromone matrix, so they scale across cores
+ * without contending for it.
+ */
+public class IslandModel {
+
+    private IntFunction<TravelingSalesman> colonies;
+    private int islands;
+    private int interval;
+
+    /**
+     * Construct the IslandModel.
+     * @param colonies      creates the colony of each island, given its number. Each colony
+     *                      needs its own graph and a different seed
+     * @param islands       the number of islands
+     * @param interval      the number of generations between migrations
+     */
+    public IslandModel (IntFunction<TravelingSalesman> colonies, int islands, int interval) {
+        if (islands < 1) {
+            throw new IllegalArgumentException("At least one island is required.");
+        }
+        this.colonies = colonies;
+        this.islands = islands;
+        this.interval = interval;
+    }
+
+    /**
+     * Run every island until it finishes.
+     * @return              the ant with the best tour found on any island
+     */
+    public Ant run () {
+        LocalTransport transport = new LocalTransport();
+        List<Island> members = new ArrayList<>();
+        for (int i = 0; i < islands; i++) {
+            members.add(new Island(i, colonies.apply(i), transport.connect(), interval));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(islands);
+        Ant best = null;
+
+        try {
+            List<Future<Ant>> futures = new ArrayList<>();
+            for (Island island : members) {
+                futures.add(executor.submit(island::run));
+            }
+            for (Future<Ant> future : futures) {
+                Ant ant = future.get();
+                if (best == null || ant.eval() < best.eval()) {
+                    best = ant;
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while the islands were running.", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("An island failed.", ex.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return best;
+    }
+
+}
@@ -0,0 +1,50 @@
+package Islands;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Carries migrants between islands running as threads of the same process.
+ * Each island gets its own endpoint from connect(), and every endpoint has a
+ * queue the others add to, so the islands never wait on each other.
+ */
+public class LocalTransport {
+
+    private List<Queue<Migrant>> queues = new ArrayList<>();
+
+    /**
+     * Connect another island.
+     * @return          the endpoint of the island
+     */
+    public synchronized Transport connect () {
+        Queue<Migrant> inbox = new ConcurrentLinkedQueue<>();
+        queues.add(inbox);
+
+        return new Transport() {
+            @Override
+            public void send (Migrant migrant) {
+                for (Queue<Migrant> queue : inboxes()) {
+                    if (queue != inbox) {
+                        queue.add(migrant);
+                    }
+                }
+            }
+
+            @Override
+            public List<Migrant> receive () {
+                List<Migrant> migrants = new ArrayList<>();
+                for (Migrant migrant; (migrant = inbox.poll()) != null; ) {
+                    migrants.add(migrant);
+                }
+                return migrants;
+            }
+        };
+    }
+
+    private synchronized List<Queue<Migrant>> inboxes () {
+        return new ArrayList<>(queues);
+    }
+
+}
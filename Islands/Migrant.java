@@ -0,0 +1,36 @@
+package Islands;
+
+/**
+ * A tour sent from one island to the others.
+ */
+public class Migrant {
+
+    private int island;
+    private long eval;
+    private int[] cities;
+
+    /**
+     * Construct the Migrant.
+     * @param island    the number of the island that found the tour
+     * @param eval      the evaluation of the tour
+     * @param cities    the cities of the tour, without the return to the start
+     */
+    public Migrant (int island, long eval, int[] cities) {
+        this.island = island;
+        this.eval = eval;
+        this.cities = cities;
+    }
+
+    public int getIsland () {
+        return island;
+    }
+
+    public long getEval () {
+        return eval;
+    }
+
+    public int[] getCities () {
+        return cities;
+    }
+
+}
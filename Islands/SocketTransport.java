@@ -0,0 +1,203 @@
+package Islands;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Carries migrants between islands running as separate processes, over TCP.
+ * Each island listens on its own port and connects to its peers the first time
+ * it sends to them. A peer that is not up yet, or has gone away, is skipped and
+ * tried again on the next send, so the islands can be started in any order.
+ * <br />
+ * Each migrant is sent as its island, evaluation, number of cities and cities,
+ * all as big-endian ints except the evaluation, which is a long. A peer that sends a tour of any other number of
+ * cities is disconnected before anything is allocated for it, since the rest
+ * of what it sends cannot be trusted either.
+ */
+public class SocketTransport implements Transport {
+
+    private static final int CONNECT_TIMEOUT = 1000;
+
+    private int cities;
+    private ServerSocket server;
+    private List<InetSocketAddress> peers;
+    private Socket[] sockets;
+    private DataOutputStream[] outputs;
+    private Queue<Migrant> inbox = new ConcurrentLinkedQueue<>();
+    private List<Socket> accepted = new ArrayList<>();
+    private volatile boolean closed;
+
+    /**
+     * Construct the SocketTransport and start listening on every local address,
+     * so that peers on other hosts can connect.
+     * @param port      the port to listen on
+     * @param peers     the addresses of the other islands
+     * @param cities    the number of cities in every tour
+     */
+    public SocketTransport (int port, List<InetSocketAddress> peers, int cities) {
+        this(new InetSocketAddress(port), peers, cities);
+    }
+
+    /**
+     * Construct the SocketTransport and start listening.
+     * @param address   the address to listen on, such as the loopback address to
+     *                  only let islands on the same host connect, or port 0 for any free port
+     * @param peers     the addresses of the other islands
+     * @param cities    the number of cities in every tour
+     */
+    public SocketTransport (InetSocketAddress address, List<InetSocketAddress> peers, int cities) {
+        this.cities = cities;
+        this.peers = new ArrayList<>(peers);
+        this.sockets = new Socket[peers.size()];
+        this.outputs = new DataOutputStream[peers.size()];
+
+        try {
+            server = new ServerSocket();
+            server.setReuseAddress(true);
+            server.bind(address);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not listen on " + address, ex);
+        }
+
+        Thread acceptor = new Thread(this::accept, "island-accept-" + address.getPort());
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * @return          the port the SocketTransport listens on
+     */
+    public int getPort () {
+        return server.getLocalPort();
+    }
+
+    @Override
+    public void send (Migrant migrant) {
+        for (int i = 0; i < peers.size(); i++) {
+            try {
+                if (outputs[i] == null) {
+                    sockets[i] = new Socket();
+                    sockets[i].connect(peers.get(i), CONNECT_TIMEOUT);
+                    sockets[i].setTcpNoDelay(true);
+                    outputs[i] = new DataOutputStream(new BufferedOutputStream(sockets[i].getOutputStream()));
+                }
+                write(outputs[i], migrant);
+            } catch (IOException ex) {
+                // The peer is not up yet or has gone away, so try to reconnect next time.
+                disconnect(i);
+            }
+        }
+    }
+
+    @Override
+    public List<Migrant> receive () {
+        List<Migrant> migrants = new ArrayList<>();
+        for (Migrant migrant; (migrant = inbox.poll()) != null; ) {
+            migrants.add(migrant);
+        }
+        return migrants;
+    }
+
+    @Override
+    public void close () {
+        closed = true;
+        for (int i = 0; i < peers.size(); i++) {
+            disconnect(i);
+        }
+        synchronized (accepted) {
+            for (Socket socket : accepted) {
+                closeQuietly(socket);
+            }
+        }
+        try {
+            server.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not stop listening on " + server.getLocalSocketAddress(), ex);
+        }
+    }
+
+    /**
+     * Accept connections from the peers, reading each on its own thread.
+     */
+    private void accept () {
+        while (!closed) {
+            try {
+                Socket socket = server.accept();
+                synchronized (accepted) {
+                    accepted.add(socket);
+                }
+                Thread reader = new Thread(() -> read(socket), "island-read-" + socket.getPort());
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException ex) {
+                // The server socket was closed.
+                return;
+            }
+        }
+    }
+
+    /**
+     * Read migrants from a peer until it disconnects, or is disconnected for
+     * sending a tour of the wrong number of cities.
+     */
+    private void read (Socket socket) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            while (!closed) {
+                int island = in.readInt();
+                long eval = in.readLong();
+                if (in.readInt() != this.cities) {
+                    return;
+                }
+                int[] cities = new int[this.cities];
+                for (int i = 0; i < cities.length; i++) {
+                    cities[i] = in.readInt();
+                }
+                inbox.add(new Migrant(island, eval, cities));
+            }
+        } catch (EOFException ex) {
+            // The peer disconnected.
+        } catch (IOException ex) {
+            // The connection was reset or closed.
+        }
+    }
+
+    private static void write (DataOutputStream out, Migrant migrant) throws IOException {
+        int[] cities = migrant.getCities();
+        out.writeInt(migrant.getIsland());
+        out.writeLong(migrant.getEval());
+        out.writeInt(cities.length);
+        for (int city : cities) {
+            out.writeInt(city);
+        }
+        out.flush();
+    }
+
+    private void disconnect (int peer) {
+        if (sockets[peer] != null) {
+            closeQuietly(sockets[peer]);
+        }
+        sockets[peer] = null;
+        outputs[peer] = null;
+    }
+
+    private static void closeQuietly (Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ex) {
+            // Nothing more can be done with a socket that will not close.
+        }
+    }
+
+}
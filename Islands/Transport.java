@@ -0,0 +1,29 @@
+package Islands;
+
+import java.io.Closeable;
+import java.util.List;
+
+/**
+ * Carries migrants between islands. An island sends its best tour to every
+ * other island and picks up whatever has arrived since it last looked, so
+ * neither call waits on the other islands.
+ */
+public interface Transport extends Closeable {
+
+    /**
+     * Send a migrant to every other island.
+     * @param migrant   the migrant to send
+     */
+    void send (Migrant migrant);
+
+    /**
+     * Take the migrants that have arrived since the last call.
+     * @return          the migrants, possibly none
+     */
+    List<Migrant> receive ();
+
+    @Override
+    default void close () {
+    }
+
+}
@@ -1,48 +1,357 @@
+import Ants.Ant;
+import Ants.AntColonySystem;
+import Ants.ConsoleListener;
+import Ants.JmxListener;
+import Ants.MaxMinAntSystem;
+import Ants.StopCriterion;
 import Ants.TravelingSalesman;
+import Batch.BatchSolver;
+import Batch.Job;
+import Batch.ResultWriter;
+import Display.WindowListener;
+import Graph.Graph;
+import IO.BinaryCache;
+import IO.FileListener;
+import IO.Import;
+import IO.Instance;
+import IO.JsonLinesListener;
+import IO.PrometheusListener;
+import IO.TSPLIB;
+import Islands.Island;
+import Islands.IslandModel;
+import Islands.SocketTransport;
+import Search.OrOpt;
+import Search.TwoOpt;
 
+import java.awt.GraphicsEnvironment;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 import java.util.Scanner;
 
 public class Main {
 
+    /**
+     * The number of nearest neighbours the ants choose among unless '-e' says otherwise.
+     */
+    private static final int DEFAULT_CANDIDATES = 20;
+
+    private static boolean cache = false;
+    private static boolean headless = GraphicsEnvironment.isHeadless();
+    private static boolean localSearch = false;
+    private static boolean maxMin = false;
+    private static boolean colonySystem = false;
+    private static boolean verbose = false;
+    private static boolean asynchronous = false;
+    private static long timeLimit = 0;
+    private static Path checkpoint = null;
+    private static Long seed = null;
+    private static Path metrics = null;
+    private static Graph.Precision precision = null;
+    private static Integer candidates = null;
+    private static Path batch = null;
+    private static Path results = Paths.get("results.csv");
+    private static int islands = 1;
+    private static InetSocketAddress listen = null;
+    private static List<InetSocketAddress> peers = new ArrayList<>();
+
     public static void main(String[] args) {
         System.out.println("------------------ANT COLONY OPTIMIZATION------------------");
-        if (args.length == 1 && args[0].equals("-p")) {
-            menu();
+        boolean custom = false;
+        Path dataSet = null;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("-p")) {
+                custom = true;
+            } else if (arg.equals("-c")) {
+                cache = true;
+            } else if (arg.equals("-h")) {
+                headless = true;
+            } else if (arg.equals("-l")) {
+                localSearch = true;
+            } else if (arg.equals("-m")) {
+                maxMin = true;
+            } else if (arg.equals("-a")) {
+                colonySystem = true;
+            } else if (arg.equals("-v")) {
+                verbose = true;
+            } else if (arg.equals("-y")) {
+                asynchronous = true;
+            } else if (arg.equals("-t") && i + 1 < args.length) {
+                timeLimit = Long.parseLong(args[++i]);
+            } else if (arg.equals("-b") && i + 1 < args.length) {
+                batch = Paths.get(args[++i]);
+            } else if (arg.equals("-o") && i + 1 < args.length) {
+                results = Paths.get(args[++i]);
+            } else if (arg.equals("-n") && i + 1 < args.length) {
+                islands = Integer.parseInt(args[++i]);
+            } else if (arg.equals("-s") && i + 2 < args.length) {
+                listen = address(args[++i], null);
+                for (String peer : args[++i].split(",")) {
+                    peers.add(address(peer, "localhost"));
+                }
+            } else if (arg.equals("-x") && i + 1 < args.length) {
+                metrics = Paths.get(args[++i]);
+            } else if (arg.equals("-r") && i + 1 < args.length) {
+                seed = Long.parseLong(args[++i]);
+            } else if (arg.equals("-k") && i + 1 < args.length) {
+                checkpoint = Paths.get(args[++i]);
+            } else if (arg.equals("-e") && i + 1 < args.length) {
+                candidates = Integer.parseInt(args[++i]);
+            } else if (arg.equals("-f") && i + 1 < args.length) {
+                precision = Graph.Precision.valueOf(args[++i].toUpperCase());
+            } else {
+                dataSet = Paths.get(arg);
+            }
+        }
+
+        if (asynchronous && (maxMin || colonySystem)) {
+            System.out.println("Only the Ant System can run asynchronously, so '-y' is ignored.");
+            asynchronous = false;
+        }
+        if (asynchronous && precision == Graph.Precision.FIXED16) {
+            System.out.println("Fixed-point pheromones are deposited under a lock on the whole matrix, "
+                    + "so with '-y' the ants deposit one at a time.");
+        }
+
+        if (batch != null) {
+            batch();
+        } else if (custom) {
+            menu(dataSet);
         } else {
             System.out.println("Use the parameter '-p' for custom settings.");
+            System.out.println("Pass the path of a TSPLIB file to solve it instead of bays29.");
+            System.out.println("Add '-c' to cache the distances of the file for the next run.");
+            System.out.println("Add '-h' to run without a window.");
+            System.out.println("Add '-l' to improve every tour with 2-opt and Or-opt.");
+            System.out.println("Add '-m' to use the Max-Min Ant System instead of the Ant System.");
+            System.out.println("Add '-a' to use the Ant Colony System instead of the Ant System.");
+            System.out.println("Add '-t <seconds>' to stop once the time runs out.");
+            System.out.println("Use '-b <directory or manifest>' to solve many files, writing to '-o <file>'.");
+            System.out.println("Add '-n <islands>' to run that many colonies on their own threads, sharing their best tours.");
+            System.out.println("Add '-s <[host:]port> <peers>' to run as an island of separate processes, such as '-s 5001 5002,5003'.");
+            System.out.println("Add '-x <file>' to write metrics every generation to a .csv, .jsonl or .prom file.");
+            System.out.println("Add '-r <seed>' to make the run reproducible, with any number of threads.");
+            System.out.println("Add '-k <file>' to save a checkpoint every 10 generations, resuming from it if it exists.");
+            System.out.println("Add '-y' to let every ant deposit as soon as it finishes, without waiting for the others.");
+            System.out.println("Add '-f <float|fixed16>' to store each edge once with its pheromone at that precision.");
+            System.out.println("Add '-e <neighbours>' to let the ants choose among that many nearest cities, "
+                    + DEFAULT_CANDIDATES + " by default, or 0 for every city.");
+            System.out.println("Add '-v' to print the progress every 10 generations.");
             System.out.println("Otherwise the default values will be: ");
             System.out.println("Ants per epoch:           100");
             System.out.println("Epochs:                   100");
             System.out.println("Evaporation Rate:         0.1");
             System.out.println("Alpha (pheromone impact): 1");
             System.out.println("Beta (distance impact):   5");
+            System.out.println("Threads:                  " + Runtime.getRuntime().availableProcessors());
 
             int ants    = 100;          // Number of ants to run per generation.
             int gen     = 100;          // Number of generations.
             double evap = 0.1;          // Evaporation rate of pheromones.
             int alpha   = 1;            // Impact of pheromones on decision making.
             int beta    = 5;            // Impact of distance on decision making.
+            int threads = Runtime.getRuntime().availableProcessors(); // Threads the ants travel on.
 
-            TravelingSalesman travelingSalesman = new TravelingSalesman(ants, gen, evap, alpha, beta);
-            travelingSalesman.run();
+            solve(dataSet, ants, gen, evap, alpha, beta, threads);
         }
         System.out.println("-------------------------COMPLETE--------------------------");
     }
 
-    private static void menu () {
-        TravelingSalesman tsp;
+    /**
+     * Solve the data set with a single colony, or with several islands that share
+     * their best tour every 10 generations.
+     */
+    private static void solve (Path dataSet, int ants, int gen, double evap, int alpha, int beta, int threads) {
+        if (islands > 1) {
+            Random seeds = seed != null ? new Random(seed) : new Random();
+            IslandModel model = new IslandModel(island -> {
+                Graph graph = load(dataSet, evap, alpha, beta);
+                TravelingSalesman tsp = new TravelingSalesman(graph, ants, gen);
+                configure(tsp, graph);
+                tsp.setSeed(seeds.nextLong());
+                tsp.setThreads(Math.max(1, threads / islands));
+                return tsp;
+            }, islands, 10);
+
+            Ant best = model.run();
+            System.out.println("Best Tour: " + best);
+            System.out.println("Evaluation: " + best.eval());
+            return;
+        }
+
+        TravelingSalesman tsp = create(dataSet, ants, gen, evap, alpha, beta);
+        tsp.setThreads(threads);
+        if (listen != null) {
+            try (SocketTransport transport = new SocketTransport(listen, peers, tsp.getGraph().getTotalVertices())) {
+                new Island(listen.getPort(), tsp, transport, 10).run();
+            }
+        } else {
+            tsp.run();
+        }
+    }
+
+    /**
+     * Parse an address given as 'host:port' or as a bare port.
+     * @param value     the address
+     * @param host      the host of a bare port, or null for every local address
+     * @return          the address
+     */
+    private static InetSocketAddress address (String value, String host) {
+        int colon = value.lastIndexOf(':');
+        if (colon >= 0) {
+            return new InetSocketAddress(value.substring(0, colon), Integer.parseInt(value.substring(colon + 1)));
+        }
+        int port = Integer.parseInt(value);
+        return host == null ? new InetSocketAddress(port) : new InetSocketAddress(host, port);
+    }
+
+    /**
+     * Create the solver for the bundled bays29 data set, or for a TSPLIB file.
+     * Files are stored densely since they are usually far larger than bays29,
+     * sparsely if they are too large for the heap, or read through a
+     * memory-mapped cache of their distances with '-c'.
+     */
+    private static TravelingSalesman create (Path dataSet, int ants, int gen, double evap, int alpha, int beta) {
+        Graph graph = load(dataSet, evap, alpha, beta);
+        TravelingSalesman tsp = new TravelingSalesman(graph, ants, gen);
+        String run = dataSet == null ? "bays29" : dataSet.getFileName().toString();
+        tsp.addListener(new ConsoleListener(verbose ? 10 : 0));
+        tsp.addListener(new JmxListener(run));
+        if (metrics != null) {
+            String file = metrics.getFileName().toString();
+            if (file.endsWith(".jsonl") || file.endsWith(".json")) {
+                tsp.addListener(new JsonLinesListener(metrics));
+            } else if (file.endsWith(".prom")) {
+                tsp.addListener(new PrometheusListener(metrics, run, 1));
+            } else {
+                tsp.addListener(new FileListener(metrics));
+            }
+        }
+        configure(tsp, graph);
+        if (seed != null) {
+            tsp.setSeed(seed);
+        }
+        if (checkpoint != null) {
+            if (Files.exists(checkpoint)) {
+                tsp.resume(checkpoint);
+            }
+            tsp.setCheckpoint(checkpoint, 10);
+        }
+        if (!headless) {
+            tsp.addListener(new WindowListener());
+        }
+        return tsp;
+    }
+
+    /**
+     * Solve every file of a directory or manifest, one job per processor, writing
+     * each result to a CSV or JSON-lines file as soon as its job finishes.
+     */
+    private static void batch () {
+        List<Job> jobs = Job.read(batch, seed != null ? seed : System.nanoTime());
+        BatchSolver solver = new BatchSolver(Runtime.getRuntime().availableProcessors());
+        solver.setConfiguration(Main::configure);
+        solver.setPrecision(precision);
+        if (candidates != null && candidates > 0) {
+            solver.setCandidates(candidates);
+        }
+
+        System.out.println("Solving " + jobs.size() + " jobs, writing the results to " + results);
+        try (ResultWriter writer = new ResultWriter(results)) {
+            solver.addListener(result -> System.out.println(result.getName() + ": "
+                    + (result.failed() ? result.getError() : result.getBestEval() + " in " + result.getSolveMillis() + " ms")));
+            solver.setWriter(writer::write);
+            solver.solve(jobs);
+        }
+    }
+
+    /**
+     * Apply the options shared by every kind of run: the candidate lists, the
+     * time limit, the local searches and the algorithm. Sparse and off-heap
+     * storage keep their own neighbours unless '-e' is given.
+     */
+    private static void configure (TravelingSalesman tsp, Graph graph) {
+        boolean restricted = graph.getCandidateList() != null;
+        int neighbours = candidates != null ? candidates : restricted ? 0 : DEFAULT_CANDIDATES;
+        if (neighbours > 0 && neighbours < graph.getTotalVertices()) {
+            tsp.setCandidates(neighbours);
+        }
+        if (timeLimit > 0) {
+            tsp.addStopCriterion(StopCriterion.timeLimit(timeLimit * 1000));
+        }
+        if (localSearch) {
+            tsp.addLocalSearch(new TwoOpt(graph));
+            tsp.addLocalSearch(new OrOpt(graph));
+        }
+        if (maxMin) {
+            tsp.setAlgorithm(new MaxMinAntSystem());
+        } else if (colonySystem) {
+            tsp.setAlgorithm(new AntColonySystem());
+        }
+        tsp.setAsynchronous(asynchronous);
+    }
+
+    private static Graph load (Path dataSet, double evap, int alpha, int beta) {
+        if (dataSet == null) {
+            if (precision == null) {
+                return Import.getGraph(evap, alpha, beta);
+            }
+            Graph graph = Import.getGraph(evap, alpha, beta, Graph.Storage.COMPACT);
+            graph.setPrecision(precision);
+            return graph;
+        }
+        Graph graph;
+        if (cache) {
+            Path cacheFile = dataSet.resolveSibling(dataSet.getFileName() + ".cache");
+            Instance instance = BinaryCache.load(dataSet, cacheFile);
+            long cities = instance.getDimension();
+            // The pheromones and choice info of every pair take 24 bytes on the heap, and an array
+            // cannot hold more than 2^31 of them, so past either limit the pheromones go to a file.
+            boolean offHeap = cities * cities > Integer.MAX_VALUE - 8
+                    || 24 * cities * cities > Runtime.getRuntime().maxMemory() / 2;
+            graph = Import.getGraph(instance, evap, alpha, beta,
+                    offHeap ? Graph.Storage.OFF_HEAP : Graph.Storage.MAPPED);
+            if (offHeap) {
+                Path pheromoneFile = dataSet.resolveSibling(dataSet.getFileName() + ".pheromones");
+                System.out.println("Mapping the pheromones of the " + cities + " cities to " + pheromoneFile
+                        + ", restricted to the " + Graph.SPARSE_CANDIDATES + " nearest neighbours.");
+                graph.setPheromoneFile(pheromoneFile);
+            }
+        } else {
+            Instance instance = TSPLIB.read(dataSet);
+            long cities = instance.getDimension();
+            Graph.Storage storage = Graph.chooseStorage(cities, precision, Runtime.getRuntime().maxMemory() / 2);
+            if (storage == Graph.Storage.SPARSE) {
+                System.out.println("Only keeping the pheromones to the " + Graph.SPARSE_CANDIDATES
+                        + " nearest neighbours of each of the " + cities + " cities.");
+            }
+            graph = Import.getGraph(instance, evap, alpha, beta, storage);
+            if (storage == Graph.Storage.COMPACT) {
+                graph.setPrecision(precision);
+            }
+        }
+        return graph;
+    }
+
+    private static void menu (Path dataSet) {
         int ants, gen;
         double evap;
-        int alpha, beta;
+        int alpha, beta, threads;
 
         ants        = getUserInt("Ants per epoch:           ");
         gen         = getUserInt("Epochs:                   ");
         evap        = getUserDouble("Evaporation Rate:         ");
         alpha       = getUserInt("Alpha (pheromone impact): ");
         beta        = getUserInt("Beta (distance impact):   ");
+        threads     = getUserInt("Threads:                  ");
 
-        tsp = new TravelingSalesman(ants, gen, evap, alpha, beta);
-        tsp.run();
+        solve(dataSet, ants, gen, evap, alpha, beta, threads);
     }
 
     private static double getUserDouble (String msg) {
@@ -0,0 +1,166 @@
+package Search;
+
+import Graph.*;
+
+/**
+ * Improves a tour by repeatedly applying small changes that shorten it, until
+ * no such change remains.
+ * <br />
+ * Moves are only searched for among the nearest neighbours of each city, and a
+ * city whose neighbourhood yielded no improvement has its "don't look" bit set
+ * so that it is skipped until one of its tour neighbours changes. Together they
+ * keep each pass close to linear in the number of cities.
+ * <br />
+ * Tours are arrays of city indices without the return to the start. Every
+ * thread gets its own scratch arrays, so one LocalSearch can improve the tours
+ * of many ants at once.
+ */
+public abstract class LocalSearch {
+
+    /**
+     * The number of neighbours searched when the Graph has no CandidateList.
+     */
+    private static final int NEIGHBOURS = 10;
+
+    /**
+     * Improvements smaller than this are treated as rounding errors.
+     */
+    protected static final double EPSILON = 1e-9;
+
+    protected Matrix matrix;
+    protected CandidateList neighbours;
+
+    private ThreadLocal<Scratch> scratch;
+
+    /**
+     * Construct the LocalSearch for the tours of a Graph.
+     * @param graph     the graph whose tours will be improved
+     */
+    protected LocalSearch (Graph graph) {
+        this.matrix = graph.getMatrix();
+        this.neighbours = graph.getCandidateList() != null
+                ? graph.getCandidateList()
+                : new CandidateList(matrix, NEIGHBOURS);
+        int size = matrix.size();
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(size));
+    }
+
+    /**
+     * Improve a tour in place.
+     * @param tour      the cities of the tour, without the return to the start
+     */
+    public void improve (int[] tour) {
+        if (tour.length < 8) {
+            return;
+        }
+
+        Scratch s = scratch.get();
+        for (int i = 0; i < tour.length; i++) {
+            s.positions[tour[i]] = i;
+            s.dontLook[tour[i]] = false;
+        }
+
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int i = 0; i < tour.length; i++) {
+                int city = tour[i];
+                if (s.dontLook[city]) continue;
+
+                if (improveCity(tour, s.positions, s.dontLook, city)) {
+                    improved = true;
+                } else {
+                    s.dontLook[city] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Look for an improving move around a city and apply the first one found.
+     * @param tour      the cities of the tour
+     * @param positions the position of each city in the tour
+     * @param dontLook  the don't look bit of each city, to be cleared around applied moves
+     * @param city      the city to search around
+     * @return          true if a move was applied
+     */
+    protected abstract boolean improveCity (int[] tour, int[] positions, boolean[] dontLook, int city);
+
+    protected int next (int[] tour, int[] positions, int city) {
+        int i = positions[city] + 1;
+        return tour[i == tour.length ? 0 : i];
+    }
+
+    protected int previous (int[] tour, int[] positions, int city) {
+        int i = positions[city] - 1;
+        return tour[i < 0 ? tour.length - 1 : i];
+    }
+
+    protected double distance (int from, int to) {
+        return matrix.getDistance(from, to);
+    }
+
+    /**
+     * Reverse the contiguous block of cities running from first to last, where
+     * second is the neighbour of first inside the block. Naming the block by its
+     * cities means it is found correctly whichever way round the tour runs.
+     * @param tour      the cities of the tour
+     * @param positions the position of each city in the tour
+     * @param first     the city at one end of the block
+     * @param second    the city next to first inside the block
+     * @param last      the city at the other end of the block
+     */
+    protected void reverseBlock (int[] tour, int[] positions, int first, int second, int last) {
+        if (next(tour, positions, first) == second) {
+            reverse(tour, positions, positions[first], positions[last]);
+        } else {
+            reverse(tour, positions, positions[last], positions[first]);
+        }
+    }
+
+    /**
+     * Reverse the cities from position i forwards to position j, wrapping around
+     * the end of the array. Reversing the rest of the tour instead gives the same
+     * cycle, so whichever of the two is shorter is reversed.
+     * @param tour      the cities of the tour
+     * @param positions the position of each city in the tour
+     * @param i         the position of the first city to reverse
+     * @param j         the position of the last city to reverse
+     */
+    protected void reverse (int[] tour, int[] positions, int i, int j) {
+        int n = tour.length;
+        int inner = (j - i + n) % n + 1;
+
+        if (inner * 2 > n) {
+            int start = (j + 1) % n;
+            j = (i - 1 + n) % n;
+            i = start;
+            inner = n - inner;
+        }
+
+        for (int k = 0; k < inner / 2; k++) {
+            int a = tour[i];
+            int b = tour[j];
+            tour[i] = b;
+            positions[b] = i;
+            tour[j] = a;
+            positions[a] = j;
+            i = i + 1 == n ? 0 : i + 1;
+            j = j == 0 ? n - 1 : j - 1;
+        }
+    }
+
+    /**
+     * The per thread working memory of a LocalSearch.
+     */
+    private static class Scratch {
+        int[] positions;
+        boolean[] dontLook;
+
+        Scratch (int size) {
+            positions = new int[size];
+            dontLook = new boolean[size];
+        }
+    }
+
+}
@@ -0,0 +1,124 @@
+package Search;
+
+import Graph.Graph;
+
+/**
+ * The Or-opt local search, which moves a segment of up to three consecutive
+ * cities to another place in the tour, either way round.
+ * <br />
+ * A segment is only moved next to one of the nearest neighbours of its end
+ * cities, and only neighbours closer than the saving from cutting the segment
+ * out are considered.
+ */
+public class OrOpt extends LocalSearch {
+
+    private static final int MAX_SEGMENT = 3;
+
+    /**
+     * Construct the OrOpt search for the tours of a Graph.
+     * @param graph     the graph whose tours will be improved
+     */
+    public OrOpt (Graph graph) {
+        super(graph);
+    }
+
+    @Override
+    protected boolean improveCity (int[] tour, int[] positions, boolean[] dontLook, int s1) {
+
+        int s2 = s1;
+
+        for (int length = 1; length <= MAX_SEGMENT && length + 3 <= tour.length; length++) {
+            if (length > 1) {
+                s2 = next(tour, positions, s2);
+            }
+
+            // The segment runs s1..s2 between p and n.
+            int p = previous(tour, positions, s1);
+            int n = next(tour, positions, s2);
+            double saved = distance(p, s1) + distance(s2, n) - distance(p, n);
+            if (saved <= EPSILON) continue;
+
+            for (int end = 0; end < 2; end++) {
+                int city = end == 0 ? s1 : s2;
+
+                for (int k = 0; k < neighbours.size(); k++) {
+                    int c = neighbours.get(city, k);
+                    if (distance(city, c) >= saved) break;
+                    if (inSegment(tour, positions, s1, length, c)) continue;
+
+                    // Try the edges on either side of c.
+                    for (int side = 0; side < 2; side++) {
+                        int x = side == 0 ? c : previous(tour, positions, c);
+                        int y = side == 0 ? next(tour, positions, c) : c;
+                        if (inSegment(tour, positions, s1, length, x)
+                                || inSegment(tour, positions, s1, length, y)) continue;
+
+                        double cut = distance(x, y);
+                        double forwards = distance(x, s1) + distance(s2, y) - cut;
+                        double backwards = distance(x, s2) + distance(s1, y) - cut;
+
+                        if (saved - Math.min(forwards, backwards) > EPSILON) {
+                            move(tour, positions, s1, s2, p, n, x, y, forwards < backwards);
+                            wake(dontLook, s1, s2, p, n, x, y);
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Move the segment s1..s2, which sits between p and n, in between x and y,
+     * where y follows x in the tour. The move is made out of reversals: the
+     * segment and the path M between it and the insertion point are reversed
+     * together, then M is reversed back, which leaves the segment reversed in
+     * its new place. Optionally the segment is then reversed once more.
+     */
+    private void move (int[] tour, int[] positions, int s1, int s2, int p, int n, int x, int y,
+                       boolean forwards) {
+        int segmentSecond = next(tour, positions, s1);
+        int size = tour.length;
+
+        int pathAfter = (positions[x] - positions[n] + size) % size;
+        int pathBefore = (positions[p] - positions[y] + size) % size;
+
+        if (pathAfter <= pathBefore) {
+            // p [s1..s2][n..x] y
+            int pathSecond = next(tour, positions, n);
+            reverseBlock(tour, positions, s1, segmentSecond, x);
+            if (n != x) {
+                reverseBlock(tour, positions, n, pathSecond, x);
+            }
+        } else {
+            // x [y..p][s1..s2] n
+            int pathSecond = next(tour, positions, y);
+            reverseBlock(tour, positions, y, pathSecond, s2);
+            if (y != p) {
+                reverseBlock(tour, positions, y, pathSecond, p);
+            }
+        }
+
+        // The segment now runs x s2..s1 y.
+        if (forwards && s1 != s2) {
+            reverseBlock(tour, positions, s1, segmentSecond, s2);
+        }
+    }
+
+    private boolean inSegment (int[] tour, int[] positions, int s1, int length, int city) {
+        int offset = (positions[city] - positions[s1] + tour.length) % tour.length;
+        return offset < length;
+    }
+
+    private static void wake (boolean[] dontLook, int a, int b, int c, int d, int e, int f) {
+        dontLook[a] = false;
+        dontLook[b] = false;
+        dontLook[c] = false;
+        dontLook[d] = false;
+        dontLook[e] = false;
+        dontLook[f] = false;
+    }
+
+}
@@ -0,0 +1,76 @@
+package Search;
+
+import Graph.Graph;
+
+/**
+ * The 2-opt local search, which removes two edges of a tour and reconnects
+ * the two paths left behind the other way round.
+ * <br />
+ * For a city a, only neighbours c closer to a than a's current tour neighbour
+ * can give an improving move, so the search through the neighbour list of a
+ * stops at the first neighbour that is too far away.
+ */
+public class TwoOpt extends LocalSearch {
+
+    /**
+     * Construct the TwoOpt search for the tours of a Graph.
+     * @param graph     the graph whose tours will be improved
+     */
+    public TwoOpt (Graph graph) {
+        super(graph);
+    }
+
+    @Override
+    protected boolean improveCity (int[] tour, int[] positions, boolean[] dontLook, int a) {
+
+        // Replace (a, aNext) and (c, cNext) with (a, c) and (aNext, cNext).
+        int aNext = next(tour, positions, a);
+        double removed = distance(a, aNext);
+
+        for (int k = 0; k < neighbours.size(); k++) {
+            int c = neighbours.get(a, k);
+            double added = distance(a, c);
+            if (added >= removed) break;
+
+            int cNext = next(tour, positions, c);
+            if (c == aNext || cNext == a) continue;
+
+            double gain = removed + distance(c, cNext) - added - distance(aNext, cNext);
+            if (gain > EPSILON) {
+                reverse(tour, positions, positions[aNext], positions[c]);
+                wake(dontLook, a, aNext, c, cNext);
+                return true;
+            }
+        }
+
+        // Replace (aPrevious, a) and (cPrevious, c) with (a, c) and (aPrevious, cPrevious).
+        int aPrevious = previous(tour, positions, a);
+        removed = distance(aPrevious, a);
+
+        for (int k = 0; k < neighbours.size(); k++) {
+            int c = neighbours.get(a, k);
+            double added = distance(a, c);
+            if (added >= removed) break;
+
+            int cPrevious = previous(tour, positions, c);
+            if (c == aPrevious || cPrevious == a) continue;
+
+            double gain = removed + distance(cPrevious, c) - added - distance(aPrevious, cPrevious);
+            if (gain > EPSILON) {
+                reverse(tour, positions, positions[a], positions[cPrevious]);
+                wake(dontLook, a, aPrevious, c, cPrevious);
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static void wake (boolean[] dontLook, int a, int b, int c, int d) {
+        dontLook[a] = false;
+        dontLook[b] = false;
+        dontLook[c] = false;
+        dontLook[d] = false;
+    }
+
+}
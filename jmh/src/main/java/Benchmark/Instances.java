@@ -0,0 +1,122 @@
+package Benchmark;
+
+import Ants.Ant;
+import Graph.Graph;
+import IO.Import;
+import IO.TSPLIB;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * The data sets the benchmarks run on, and the parameters they are solved with.
+ * <br />
+ * A data set is either the bundled bays29 or a number of cities scattered
+ * uniformly at random, always the same for the same number. Every Graph keeps
+ * its distances and pheromones in a dense matrix of doubles, so 10000 cities
+ * need a heap of a few gigabytes.
+ */
+final class Instances {
+
+    static final int ANTS = 20;
+    static final double EVAPORATION = 0.1;
+    static final int ALPHA = 1, BETA = 5;
+
+    private static final String BAYS29 = "bays29";
+
+    private Instances () {
+    }
+
+    /**
+     * Get the TSPLIB file of a data set.
+     * @param name      bays29, or the number of cities of a random data set
+     * @return          the contents of the file
+     */
+    static byte[] file (String name) {
+        if (name.equals(BAYS29)) {
+            try (InputStream stream = Import.class.getResourceAsStream(BAYS29 + ".tsp")) {
+                return stream.readAllBytes();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        int size = Integer.parseInt(name);
+        return synthetic(size, new Random(size));
+    }
+
+    /**
+     * Build a fresh Graph of a data set, with the pheromones it starts a run with.
+     * @param name          bays29, or the number of cities of a random data set
+     * @param candidates    the number of nearest neighbours the ants choose among, or 0 for every city
+     * @return              the Graph, with its Matrix built
+     */
+    static Graph graph (String name, int candidates) {
+        Graph graph = load(file(name));
+        if (candidates > 0) {
+            graph.buildCandidateList(candidates);
+        }
+        return graph;
+    }
+
+    /**
+     * Parse a TSPLIB file and build the Matrix of its Graph.
+     */
+    static Graph load (byte[] file) {
+        Graph graph = Import.getGraph(TSPLIB.read(new ByteArrayInputStream(file)), EVAPORATION, ALPHA, BETA,
+                Graph.Storage.DENSE);
+        graph.getMatrix();
+        return graph;
+    }
+
+    /**
+     * Create a generation of ants, which the benchmarks restart for every
+     * tour as a run does rather than creating new ones.
+     * @param graph     the Graph the ants travel
+     * @param random    the generator the ants' own generators are split from
+     * @return          the ants
+     */
+    static Ant[] ants (Graph graph, SplittableRandom random) {
+        Ant[] ants = new Ant[ANTS];
+        for (int i = 0; i < ANTS; i++) {
+            ants[i] = new Ant(graph, random.split());
+        }
+        return ants;
+    }
+
+    /**
+     * Restart an ant on a random city and let it build a whole tour.
+     */
+    static void travel (Ant ant) {
+        ant.clear();
+        while (ant.notFinished()) {
+            ant.travel();
+        }
+    }
+
+    /**
+     * Create a TSPLIB file of cities scattered uniformly at random.
+     * @param size      the number of cities
+     * @param random    the source of the coordinates
+     * @return          the contents of the file
+     */
+    private static byte[] synthetic (int size, Random random) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("NAME: random").append(size).append('\n');
+        sb.append("TYPE: TSP\n");
+        sb.append("DIMENSION: ").append(size).append('\n');
+        sb.append("EDGE_WEIGHT_TYPE: EUC_2D\n");
+        sb.append("NODE_COORD_SECTION\n");
+        for (int i = 0; i < size; i++) {
+            sb.append(i + 1).append(' ').append(random.nextInt(1_000_000)).append(' ')
+                    .append(random.nextInt(1_000_000)).append('\n');
+        }
+        sb.append("EOF\n");
+        return sb.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+}
@@ -0,0 +1,107 @@
+package Benchmark;
+
+import Ants.Ant;
+import Graph.ChoiceInfo;
+import Graph.Edge;
+import Graph.Graph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The passes over the pheromones that the Kernels may vectorize: evaporation
+ * and refreshing the choice info, and the whole pheromone update of a
+ * generation, which evaporates and then deposits along every tour.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class PheromoneBenchmark {
+
+    /**
+     * A Graph with the pheromones a run starts with and a generation of ants
+     * with their tours built, all made again before every iteration.
+     */
+    @State(Scope.Thread)
+    public static class Colony {
+
+        @Param({"bays29", "100", "1000"})
+        public String instance;
+
+        /**
+         * The number of nearest neighbours the ants choose among, or 0 for every city.
+         */
+        @Param({"0", "20"})
+        public int candidates;
+
+        Graph graph;
+        ChoiceInfo choiceInfo;
+        Ant[] ants;
+
+        @Setup(Level.Iteration)
+        public void build () {
+            graph = Instances.graph(instance, candidates);
+            choiceInfo = graph.getChoiceInfo();
+            ants = Instances.ants(graph, new SplittableRandom(42));
+            for (Ant ant : ants) {
+                Instances.travel(ant);
+            }
+        }
+
+    }
+
+    /**
+     * The pheromones a run starts with, restored before every evaporation,
+     * since evaporating the same Matrix over and over would soon leave only
+     * subnormal numbers and then zeros to multiply.
+     */
+    @State(Scope.Thread)
+    public static class Initial {
+
+        Graph graph;
+
+        @Setup(Level.Invocation)
+        public void restore (Colony colony) {
+            graph = colony.graph;
+            graph.getMatrix().fill(Edge.INITIAL_PHEROMONE);
+        }
+
+    }
+
+    @Benchmark
+    public Graph evaporation (Initial initial) {
+        initial.graph.evaporate();
+        return initial.graph;
+    }
+
+    @Benchmark
+    public ChoiceInfo choiceInfo (Colony colony) {
+        colony.choiceInfo.update();
+        return colony.choiceInfo;
+    }
+
+    /**
+     * Deposits the same tours on every call, which keeps the pheromones
+     * between the ones a run would see rather than letting them decay.
+     */
+    @Benchmark
+    public Graph pheromoneUpdate (Colony colony) {
+        colony.graph.updatePheromones(colony.ants);
+        return colony.graph;
+    }
+
+}
@@ -0,0 +1,78 @@
+package Benchmark;
+
+import Ants.Ant;
+import Graph.Graph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building a single tour, and running a whole generation of the Ant System:
+ * every ant builds a tour, then the pheromones evaporate and are deposited.
+ * The ants are restarted for every tour as they are in a run, so neither
+ * benchmark counts creating them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class TourBenchmark {
+
+    /**
+     * A Graph with the pheromones a run starts with and a generation of ants,
+     * built again before every iteration so the generations of one iteration
+     * do not carry over into the next.
+     */
+    @State(Scope.Thread)
+    public static class Colony {
+
+        @Param({"bays29", "100", "1000"})
+        public String instance;
+
+        /**
+         * The number of nearest neighbours the ants choose among, or 0 for every city.
+         */
+        @Param({"0", "20"})
+        public int candidates;
+
+        Graph graph;
+        Ant[] ants;
+
+        @Setup(Level.Iteration)
+        public void build () {
+            graph = Instances.graph(instance, candidates);
+            ants = Instances.ants(graph, new SplittableRandom(42));
+        }
+
+    }
+
+    @Benchmark
+    public Ant construction (Colony colony) {
+        Ant ant = colony.ants[0];
+        Instances.travel(ant);
+        return ant;
+    }
+
+    @Benchmark
+    public Graph generation (Colony colony) {
+        for (Ant ant : colony.ants) {
+            Instances.travel(ant);
+        }
+        colony.graph.updatePheromones(colony.ants);
+        return colony.graph;
+    }
+
+}
@@ -0,0 +1,68 @@
+package Ants;
+
+import Graph.Graph;
+import IO.Import;
+import IO.Instance;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Checks that a seeded run finds the same tour on one thread as on several,
+ * for every Algorithm and every kind of storage that keeps each Edge.
+ */
+public class DeterminismTest {
+
+    private static final int CITIES = 200;
+    private static final long SEED = 1234;
+
+    public static void main (String[] args) {
+        Graph.Storage[] storages = {Graph.Storage.DENSE, Graph.Storage.COMPACT, Graph.Storage.COMPACT};
+        Graph.Precision[] precisions = {null, Graph.Precision.FLOAT, Graph.Precision.FIXED16};
+        String[] algorithms = {"AntSystem", "MaxMinAntSystem", "AntColonySystem"};
+
+        for (int s = 0; s < storages.length; s++) {
+            for (String algorithm : algorithms) {
+                Ant single = solve(storages[s], precisions[s], algorithm, 1);
+                Ant several = solve(storages[s], precisions[s], algorithm, 4);
+                String name = storages[s] + (precisions[s] == null ? "" : "/" + precisions[s]) + " " + algorithm;
+                if (single.eval() != several.eval() || !Arrays.equals(single.getCities(), several.getCities())) {
+                    throw new AssertionError(name + ": " + single.eval() + " on 1 thread but "
+                            + several.eval() + " on 4 threads");
+                }
+                System.out.println(name + ": " + single.eval() + " on 1 and 4 threads");
+            }
+        }
+    }
+
+    private static Ant solve (Graph.Storage storage, Graph.Precision precision, String algorithm, int threads) {
+        Graph graph = Import.getGraph(instance(), 0.1, 1, 5, storage);
+        if (precision != null) {
+            graph.setPrecision(precision);
+        }
+        TravelingSalesman tsp = new TravelingSalesman(graph, 20, 60);
+        tsp.setSeed(SEED);
+        tsp.setThreads(threads);
+        if (algorithm.equals("MaxMinAntSystem")) {
+            tsp.setAlgorithm(new MaxMinAntSystem());
+        } else if (algorithm.equals("AntColonySystem")) {
+            tsp.setAlgorithm(new AntColonySystem());
+        }
+        return tsp.run();
+    }
+
+    /**
+     * Random cities in a square, the same on every call.
+     */
+    static Instance instance () {
+        SplittableRandom random = new SplittableRandom(SEED);
+        double[] x = new double[CITIES];
+        double[] y = new double[CITIES];
+        for (int i = 0; i < CITIES; i++) {
+            x[i] = random.nextInt(10000);
+            y[i] = random.nextInt(10000);
+        }
+        return new Instance("random" + CITIES, CITIES, Instance.EdgeWeightType.EUC_2D, x, y, null);
+    }
+
+}
@@ -0,0 +1,82 @@
+package Ants;
+
+import Graph.Graph;
+import IO.Import;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Checks that a run stopped at a checkpoint and resumed finds the same tour
+ * as the run that was never stopped, for every Algorithm and every kind of
+ * storage, whichever generation the checkpoint was taken at.
+ */
+public class ResumeTest {
+
+    private static final int GENERATIONS = 60;
+    private static final int[] STOPS = {7, 23, 41};
+    private static final long SEED = 4321;
+
+    public static void main (String[] args) throws IOException {
+        Graph.Storage[] storages = {Graph.Storage.DENSE, Graph.Storage.COMPACT, Graph.Storage.COMPACT,
+                Graph.Storage.SPARSE, Graph.Storage.OFF_HEAP};
+        Graph.Precision[] precisions = {null, Graph.Precision.FLOAT, Graph.Precision.FIXED16, null, null};
+        String[] algorithms = {"AntSystem", "MaxMinAntSystem", "AntColonySystem"};
+        Path checkpoint = Files.createTempFile("resume", ".checkpoint");
+
+        try {
+            for (int s = 0; s < storages.length; s++) {
+                for (String algorithm : algorithms) {
+                    String name = storages[s] + (precisions[s] == null ? "" : "/" + precisions[s]) + " " + algorithm;
+                    Ant uninterrupted = solver(storages[s], precisions[s], algorithm, GENERATIONS).run();
+
+                    for (int stop : STOPS) {
+                        TravelingSalesman stopped = solver(storages[s], precisions[s], algorithm, stop);
+                        stopped.setCheckpoint(checkpoint, 5);
+                        stopped.run();
+
+                        TravelingSalesman resumed = solver(storages[s], precisions[s], algorithm, GENERATIONS);
+                        resumed.resume(checkpoint);
+                        Ant ant = resumed.run();
+                        if (ant.eval() != uninterrupted.eval()
+                                || !Arrays.equals(ant.getCities(), uninterrupted.getCities())) {
+                            throw new AssertionError(name + ": " + uninterrupted.eval() + " uninterrupted but "
+                                    + ant.eval() + " when resumed at generation " + stop);
+                        }
+                    }
+                    System.out.println(name + ": " + uninterrupted.eval() + " uninterrupted and resumed");
+                }
+            }
+        } finally {
+            Files.deleteIfExists(checkpoint);
+        }
+    }
+
+    /**
+     * A solver whose run depends on every piece of state a checkpoint keeps:
+     * the Max-Min Ant System smooths the pheromones after a few generations
+     * without improvement, and the run stops after a few more.
+     */
+    private static TravelingSalesman solver (Graph.Storage storage, Graph.Precision precision,
+                                             String algorithm, int generations) {
+        Graph graph = Import.getGraph(DeterminismTest.instance(), 0.1, 1, 5, storage);
+        if (precision != null) {
+            graph.setPrecision(precision);
+        }
+        TravelingSalesman tsp = new TravelingSalesman(graph, 20, generations);
+        tsp.setSeed(SEED);
+        tsp.setThreads(2);
+        tsp.addStopCriterion(StopCriterion.noImprovement(30));
+        if (algorithm.equals("MaxMinAntSystem")) {
+            MaxMinAntSystem mmas = new MaxMinAntSystem();
+            mmas.setStagnationLimit(8);
+            tsp.setAlgorithm(mmas);
+        } else if (algorithm.equals("AntColonySystem")) {
+            tsp.setAlgorithm(new AntColonySystem());
+        }
+        return tsp;
+    }
+
+}
@@ -0,0 +1,141 @@
+package Graph;
+
+import IO.Import;
+import IO.Instance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Checks that no deposit is lost when several threads deposit on the same
+ * Edges at once while another thread evaporates the pheromones, for every
+ * kind of storage whose deposits are exact. The cities are few, so that most
+ * of what the evaporation rewrites is being deposited on.
+ * <br />
+ * The evaporation keeps every pheromone as it is, and the amounts are powers
+ * of two, so whatever order the updates land in the pheromones must end up
+ * exactly where the same deposits made on one thread leave them. The fixed
+ * point storage rounds every deposit, so it is not checked; it is also the
+ * only one that takes a lock rather than a compare-and-set on each Edge.
+ */
+public class ConcurrentDepositTest {
+
+    private static final int CITIES = 12;
+    private static final int EDGES = 8;
+    private static final int THREADS = 8;
+    private static final int DEPOSITS = 5_000_000;
+    private static final double AMOUNT = 1.0 / 64;
+
+    /**
+     * A lost update needs a thread to be preempted in the middle of it, which
+     * on a single core is rare enough that one round may not catch it.
+     */
+    private static final int ROUNDS = 3;
+
+    /**
+     * Evaporation that keeps every pheromone, read from a field that is not
+     * final so that the JIT cannot fold the multiplication away.
+     */
+    private static double unchanged = 1.0;
+
+    public static void main (String[] args) throws InterruptedException {
+        Graph.Storage[] storages = {Graph.Storage.EDGES, Graph.Storage.DENSE, Graph.Storage.MAPPED,
+                Graph.Storage.COMPACT, Graph.Storage.SPARSE, Graph.Storage.OFF_HEAP};
+
+        for (Graph.Storage storage : storages) {
+            Graph graph = graph(storage);
+            int[][] edges = edges(graph);
+
+            Matrix expected = graph(storage).getMatrix();
+            expected.fill(1.0);
+            for (int i = 0; i < THREADS * DEPOSITS; i++) {
+                int[] edge = edges[i % EDGES];
+                expected.deposit(edge[0], edge[1], AMOUNT);
+            }
+
+            for (int round = 0; round < ROUNDS; round++) {
+                Matrix matrix = graph.getMatrix();
+                matrix.fill(1.0);
+                depositConcurrently(matrix, edges);
+
+                for (int[] edge : edges) {
+                    double pheromone = matrix.getPheromone(edge[0], edge[1]);
+                    double sequential = expected.getPheromone(edge[0], edge[1]);
+                    if (pheromone != sequential) {
+                        throw new AssertionError(storage + ": " + pheromone + " on the Edge from " + edge[0]
+                                + " to " + edge[1] + " but " + sequential + " when deposited on one thread");
+                    }
+                }
+            }
+            System.out.println(storage + " (" + graph.getMatrix().getClass().getSimpleName() + "): no deposit lost");
+        }
+    }
+
+    /**
+     * Deposit on the Edges from several threads at once, while another thread
+     * evaporates until every deposit has been made.
+     */
+    private static void depositConcurrently (Matrix matrix, int[][] edges) throws InterruptedException {
+        AtomicBoolean depositing = new AtomicBoolean(true);
+        Thread evaporator = new Thread(() -> {
+            while (depositing.get()) {
+                matrix.evaporateConcurrently(unchanged);
+            }
+        });
+        List<Thread> depositors = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t;
+            depositors.add(new Thread(() -> {
+                for (int i = 0; i < DEPOSITS; i++) {
+                    int[] edge = edges[(i + offset) % EDGES];
+                    matrix.depositConcurrently(edge[0], edge[1], AMOUNT);
+                }
+            }));
+        }
+
+        evaporator.start();
+        for (Thread depositor : depositors) {
+            depositor.start();
+        }
+        for (Thread depositor : depositors) {
+            depositor.join();
+        }
+        depositing.set(false);
+        evaporator.join();
+    }
+
+    private static Graph graph (Graph.Storage storage) {
+        SplittableRandom random = new SplittableRandom(CITIES);
+        double[] x = new double[CITIES];
+        double[] y = new double[CITIES];
+        for (int i = 0; i < CITIES; i++) {
+            x[i] = random.nextInt(10000);
+            y[i] = random.nextInt(10000);
+        }
+        Instance instance = new Instance("random" + CITIES, CITIES, Instance.EdgeWeightType.EUC_2D, x, y, null);
+        Graph graph = Import.getGraph(instance, 0.1, 1, 5, storage);
+        if (storage == Graph.Storage.COMPACT) {
+            graph.setPrecision(Graph.Precision.FLOAT);
+        }
+        return graph;
+    }
+
+    /**
+     * The Edges from the first few cities to their nearest neighbours, which
+     * every kind of storage keeps.
+     */
+    private static int[][] edges (Graph graph) {
+        if (graph.getCandidateList() == null) {
+            graph.buildCandidateList(5);
+        }
+        CandidateList candidates = graph.getCandidateList();
+        int[][] edges = new int[EDGES][];
+        for (int i = 0; i < EDGES; i++) {
+            edges[i] = new int[] {i, candidates.get(i, 0)};
+        }
+        return edges;
+    }
+
+}
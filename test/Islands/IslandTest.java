@@ -0,0 +1,160 @@
+package Islands;
+
+import Ants.Ant;
+import Ants.TravelingSalesman;
+import Graph.Graph;
+import IO.Import;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Checks that islands exchange their tours: over sockets on the loopback
+ * address between two transports on free ports, and between the colonies of
+ * an IslandModel in the same process. A tour of the wrong length never arrives,
+ * and one that does not visit every city exactly once is never adopted.
+ */
+public class IslandTest {
+
+    private static final int CITIES = 29;
+    private static final long TIMEOUT = 10_000;
+
+    public static void main (String[] args) throws InterruptedException {
+        sockets();
+        islands();
+        model();
+    }
+
+    /**
+     * A migrant sent from one SocketTransport arrives at the other as it was sent.
+     */
+    private static void sockets () throws InterruptedException {
+        try (SocketTransport receiver = transport(Collections.emptyList());
+             SocketTransport sender = transport(List.of(loopback(receiver)))) {
+
+            int[] cities = tour();
+            sender.send(new Migrant(7, 9000, cities));
+
+            List<Migrant> migrants = await(receiver);
+            if (migrants.size() != 1) {
+                throw new AssertionError(migrants.size() + " migrants arrived, but only one was sent");
+            }
+            Migrant migrant = migrants.get(0);
+            if (migrant.getIsland() != 7 || migrant.getEval() != 9000 || !Arrays.equals(migrant.getCities(), cities)) {
+                throw new AssertionError("The migrant changed on its way between the islands");
+            }
+
+            sender.send(new Migrant(3, 42, new int[CITIES - 1]));
+            Thread.sleep(500);
+            if (!receiver.receive().isEmpty()) {
+                throw new AssertionError("A tour of " + (CITIES - 1) + " cities arrived on an island of " + CITIES);
+            }
+        }
+        System.out.println("SocketTransport: a tour arrived over the loopback address, one of the wrong length did not");
+    }
+
+    /**
+     * An island run over sockets adopts the best tour of a stronger island,
+     * and ignores a tour that claims to be shorter but repeats a city.
+     */
+    private static void islands () throws InterruptedException {
+        try (SocketTransport weak = transport(Collections.emptyList());
+             SocketTransport strong = transport(List.of(loopback(weak)))) {
+
+            int[] repeated = tour();
+            repeated[1] = repeated[0];
+            strong.send(new Migrant(2, 1, repeated));
+
+            Ant found = new Island(0, colony(20, 40, 1), strong, 1).run();
+
+            // Wait for the tours of the strong island before the weak one looks for them.
+            List<Migrant> arrived = await(weak);
+            Transport inbox = new Transport() {
+                @Override
+                public void send (Migrant migrant) {
+                }
+
+                @Override
+                public List<Migrant> receive () {
+                    List<Migrant> migrants = new ArrayList<>(arrived);
+                    arrived.clear();
+                    return migrants;
+                }
+            };
+            Ant adopted = new Island(1, colony(1, 3, 2), inbox, 1).run();
+
+            if (adopted.eval() > found.eval()) {
+                throw new AssertionError("The weak island kept a tour of " + adopted.eval()
+                        + " instead of adopting the tour of " + found.eval());
+            }
+            if (adopted.eval() == 1) {
+                throw new AssertionError("The weak island adopted a tour that repeats a city");
+            }
+            System.out.println("Island: adopted a tour of " + adopted.eval() + " and ignored an invalid one");
+        }
+    }
+
+    /**
+     * The colonies of an IslandModel share their tours through a LocalTransport.
+     */
+    private static void model () {
+        int[] seeds = {11, 12, 13};
+        Ant best = new IslandModel(island -> colony(10, 20, seeds[island]), seeds.length, 5).run();
+        int[] cities = best.getCities();
+        int[] sorted = cities.clone();
+        Arrays.sort(sorted);
+        for (int i = 0; i < CITIES; i++) {
+            if (sorted[i] != i) {
+                throw new AssertionError("The best tour of the IslandModel does not visit every city once");
+            }
+        }
+        System.out.println("IslandModel: " + best.eval() + " over " + seeds.length + " islands");
+    }
+
+    private static TravelingSalesman colony (int ants, int generations, long seed) {
+        Graph graph = Import.getGraph(0.1, 1, 5, Graph.Storage.DENSE);
+        TravelingSalesman tsp = new TravelingSalesman(graph, ants, generations);
+        tsp.setSeed(seed);
+        tsp.setThreads(1);
+        return tsp;
+    }
+
+    private static SocketTransport transport (List<InetSocketAddress> peers) {
+        return new SocketTransport(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), peers, CITIES);
+    }
+
+    private static InetSocketAddress loopback (SocketTransport transport) {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), transport.getPort());
+    }
+
+    private static int[] tour () {
+        int[] cities = new int[CITIES];
+        for (int i = 0; i < CITIES; i++) {
+            cities[i] = i;
+        }
+        return cities;
+    }
+
+    /**
+     * Wait for migrants to arrive, then for any still on their way.
+     */
+    private static List<Migrant> await (Transport transport) throws InterruptedException {
+        List<Migrant> migrants = new ArrayList<>();
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (migrants.isEmpty()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("No migrant arrived within " + TIMEOUT + " ms");
+            }
+            Thread.sleep(10);
+            migrants.addAll(transport.receive());
+        }
+        Thread.sleep(200);
+        migrants.addAll(transport.receive());
+        return migrants;
+    }
+
+}
@@ -0,0 +1,144 @@
+package Graph;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Kernels that use the incubating Vector API to process as many elements at a
+ * time as the widest SIMD registers of the CPU hold. Each lane does the same
+ * operations in the same order as the scalar Kernels, so the results match
+ * them exactly; the elements left over at the end of a range are done one at
+ * a time by the scalar code.
+ * <br />
+ * This class lives in its own source folder since it only compiles with
+ * --add-modules jdk.incubator.vector. Kernels.get() loads it by name, and only
+ * if the module is present at run time.
+ */
+class VectorKernels extends Kernels {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+
+    VectorKernels () {
+    }
+
+    @Override
+    public int lanes () {
+        return SPECIES.length();
+    }
+
+    @Override
+    public void scale (double[] values, int from, int to, double factor) {
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, values, i).mul(factor).intoArray(values, i);
+        }
+        super.scale(values, i, to, factor);
+    }
+
+    @Override
+    public void clamp (double[] values, int from, int to, double min, double max) {
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, values, i).min(max).max(min).intoArray(values, i);
+        }
+        super.clamp(values, i, to, min, max);
+    }
+
+    @Override
+    public void smooth (double[] values, int from, int to, double target, double fraction) {
+        DoubleVector targets = DoubleVector.broadcast(SPECIES, target);
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            DoubleVector v = DoubleVector.fromArray(SPECIES, values, i);
+            v.add(targets.sub(v).mul(fraction)).intoArray(values, i);
+        }
+        super.smooth(values, i, to, target, fraction);
+    }
+
+    @Override
+    public void scale (float[] values, int from, int to, float factor) {
+        int i = from;
+        for (int bound = from + FLOATS.loopBound(to - from); i < bound; i += FLOATS.length()) {
+            FloatVector.fromArray(FLOATS, values, i).mul(factor).intoArray(values, i);
+        }
+        super.scale(values, i, to, factor);
+    }
+
+    @Override
+    public void clamp (float[] values, int from, int to, float min, float max) {
+        int i = from;
+        for (int bound = from + FLOATS.loopBound(to - from); i < bound; i += FLOATS.length()) {
+            FloatVector.fromArray(FLOATS, values, i).min(max).max(min).intoArray(values, i);
+        }
+        super.clamp(values, i, to, min, max);
+    }
+
+    @Override
+    public void smooth (float[] values, int from, int to, float target, float fraction) {
+        FloatVector targets = FloatVector.broadcast(FLOATS, target);
+        int i = from;
+        for (int bound = from + FLOATS.loopBound(to - from); i < bound; i += FLOATS.length()) {
+            FloatVector v = FloatVector.fromArray(FLOATS, values, i);
+            v.add(targets.sub(v).mul(fraction)).intoArray(values, i);
+        }
+        super.smooth(values, i, to, target, fraction);
+    }
+
+    @Override
+    public void choice (double[] pheromones, double[] heuristic, double[] choice, int from, int to, int alpha) {
+        if (alpha < -4 || alpha > 4) {
+            // Larger powers need the loop in power(), which is slower than scalar code.
+            super.choice(pheromones, heuristic, choice, from, to, alpha);
+            return;
+        }
+
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            DoubleVector p = power(DoubleVector.fromArray(SPECIES, pheromones, i), alpha);
+            p.mul(DoubleVector.fromArray(SPECIES, heuristic, i)).intoArray(choice, i);
+        }
+        super.choice(pheromones, heuristic, choice, i, to, alpha);
+    }
+
+    /**
+     * Raise every lane to a whole power by repeated squaring, as ChoiceInfo.power() does.
+     * The small powers are written out, since vectors carried around a loop are
+     * not kept in registers and are much slower; multiplying by the initial 1.0
+     * is exact, so they give the same results as the loop.
+     */
+    private static DoubleVector power (DoubleVector base, int exponent) {
+        if (exponent < 0) {
+            return DoubleVector.broadcast(SPECIES, 1.0).div(power(base, -exponent));
+        }
+
+        switch (exponent) {
+            case 0:
+                return DoubleVector.broadcast(SPECIES, 1.0);
+            case 1:
+                return base;
+            case 2:
+                return base.mul(base);
+            case 3:
+                return base.mul(base.mul(base));
+            case 4: {
+                DoubleVector square = base.mul(base);
+                return square.mul(square);
+            }
+            default:
+                break;
+        }
+
+        DoubleVector result = DoubleVector.broadcast(SPECIES, 1.0);
+        while (exponent != 0) {
+            if ((exponent & 1) != 0) {
+                result = result.mul(base);
+            }
+            base = base.mul(base);
+            exponent >>>= 1;
+        }
+        return result;
+    }
+
+}